@@ -0,0 +1,149 @@
+/*
+ * Copyright 2022 KCodeYT
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ms.kevi.plotplugin.benchmark;
+
+import cn.nukkit.Server;
+import cn.nukkit.blockstate.BlockState;
+import cn.nukkit.plugin.PluginBase;
+import cn.nukkit.plugin.PluginManager;
+import cn.nukkit.math.Vector3;
+import lombok.experimental.UtilityClass;
+import ms.kevi.plotplugin.PlotPlugin;
+import ms.kevi.plotplugin.manager.PlotManager;
+import ms.kevi.plotplugin.schematic.Schematic;
+import ms.kevi.plotplugin.schematic.SchematicBlock;
+import ms.kevi.plotplugin.util.Plot;
+import ms.kevi.plotplugin.util.PlotLevelSettings;
+import ms.kevi.plotplugin.util.async.TaskExecutor;
+import sun.misc.Unsafe;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Creates plugin objects without a running server for the benchmarks.
+ *
+ * @author Kevims KCodeYT
+ * @version 1.0
+ */
+@UtilityClass
+public class BenchmarkFixtures {
+
+    /**
+     * Creates a plugin with a temporary data folder. Scheduled tasks run directly on the calling thread
+     * and events are called on a server stub which only consists of a plugin manager without any listeners.
+     */
+    public PlotPlugin createPlugin() {
+        try {
+            final PlotPlugin plugin = new PlotPlugin();
+            final File dataFolder = Files.createTempDirectory("plotplugin-benchmark").toFile();
+            dataFolder.deleteOnExit();
+
+            setField(PluginBase.class, plugin, "dataFolder", dataFolder);
+            setField(PluginBase.class, plugin, "server", createServerStub());
+
+            TaskExecutor.setExecutors(Runnable::run, Runnable::run);
+            PlotPlugin.INSTANCE = plugin;
+            return plugin;
+        } catch(IOException | ReflectiveOperationException e) {
+            throw new IllegalStateException("Could not create the benchmark plugin!", e);
+        }
+    }
+
+    private Server createServerStub() throws ReflectiveOperationException {
+        final Field unsafeField = Unsafe.class.getDeclaredField("theUnsafe");
+        unsafeField.setAccessible(true);
+
+        final Server server = (Server) ((Unsafe) unsafeField.get(null)).allocateInstance(Server.class);
+        setField(Server.class, server, "pluginManager", new PluginManager(server, null));
+        return server;
+    }
+
+    private void setField(Class<?> clazz, Object instance, String name, Object value) throws ReflectiveOperationException {
+        final Field field = clazz.getDeclaredField(name);
+        field.setAccessible(true);
+        field.set(instance, value);
+    }
+
+    /**
+     * Overrides the value of a config option of the plugin, which would otherwise be read in onEnable.
+     */
+    public void setOption(PlotPlugin plugin, String fieldName, Object value) {
+        try {
+            setField(PlotPlugin.class, plugin, fieldName, value);
+        } catch(ReflectiveOperationException e) {
+            throw new IllegalStateException("Could not set the option " + fieldName + "!", e);
+        }
+    }
+
+    public PlotManager createPlotManager(PlotPlugin plugin, String levelName) {
+        return new PlotManager(plugin, levelName, new PlotLevelSettings());
+    }
+
+    /**
+     * Merges all plots in the square from 0;0 to size-1;size-1 into one group.
+     */
+    public void mergeSquare(PlotManager plotManager, int size) {
+        for(int x = 0; x < size; x++) {
+            for(int z = 0; z < size; z++) {
+                final Plot plot = plotManager.getPlotById(x, z);
+                if(z > 0) plot.setMerged(0, true);
+                if(x < size - 1) plot.setMerged(1, true);
+                if(z < size - 1) plot.setMerged(2, true);
+                if(x > 0) plot.setMerged(3, true);
+            }
+        }
+
+        final List<Plot> plots = new ArrayList<>();
+        for(int x = 0; x < size; x++)
+            for(int z = 0; z < size; z++)
+                plots.add(plotManager.getPlotById(x, z));
+
+        plotManager.updateDiagonalMerges(plots);
+        plotManager.updateOrigins(plots);
+    }
+
+    public Schematic createRoadSchematic(PlotLevelSettings levelSettings, int blocks, long seed) {
+        final Schematic schematic = new Schematic();
+        final SplittableRandom random = new SplittableRandom(seed);
+        final BlockState[] palette = {
+                levelSettings.getRoadState(),
+                levelSettings.getWallFillingState(),
+                levelSettings.getWallPlotState(),
+                levelSettings.getClaimPlotState(),
+                levelSettings.getLastLayerState()
+        };
+
+        final int totalSize = levelSettings.getTotalSize();
+        for(int i = 0; i < blocks; i++) {
+            final Vector3 vector = new Vector3(
+                    levelSettings.getPlotSize() + random.nextInt(levelSettings.getRoadSize()),
+                    levelSettings.getGroundHeight() + random.nextInt(8),
+                    random.nextInt(totalSize)
+            );
+            schematic.addBlock(vector, new SchematicBlock(palette[random.nextInt(palette.length)], BlockState.AIR));
+        }
+
+        return schematic;
+    }
+
+}
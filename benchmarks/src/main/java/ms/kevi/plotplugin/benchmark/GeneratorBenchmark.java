@@ -0,0 +1,105 @@
+/*
+ * Copyright 2022 KCodeYT
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ms.kevi.plotplugin.benchmark;
+
+import cn.nukkit.level.format.FullChunk;
+import cn.nukkit.math.Vector3;
+import ms.kevi.plotplugin.PlotPlugin;
+import ms.kevi.plotplugin.generator.PlotGenerator;
+import ms.kevi.plotplugin.manager.PlotManager;
+import ms.kevi.plotplugin.schematic.Schematic;
+import ms.kevi.plotplugin.util.Allowed;
+import ms.kevi.plotplugin.util.LevelUtils;
+import ms.kevi.plotplugin.util.PlotLevelSettings;
+import ms.kevi.plotplugin.util.ShapeType;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the chunk generation of the {@link PlotGenerator} and the placement
+ * of a road {@link Schematic} into in memory chunks covering one plot with its roads.
+ *
+ * @author Kevims KCodeYT
+ * @version 1.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GeneratorBenchmark {
+
+    private static final Allowed<ShapeType> ALL_SHAPES = new Allowed<>(ShapeType.values());
+
+    @Param({"false", "true"})
+    private boolean withSchematic;
+
+    private PlotManager plotManager;
+    private PlotGenerator plotGenerator;
+    private Schematic schematic;
+    private FullChunk[] chunks;
+    private ShapeType[][] shapes;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        final PlotPlugin plugin = BenchmarkFixtures.createPlugin();
+        this.plotManager = BenchmarkFixtures.createPlotManager(plugin, "benchmark_generator_" + this.withSchematic);
+        this.plotGenerator = new PlotGenerator();
+
+        final PlotLevelSettings levelSettings = this.plotManager.getLevelSettings();
+        this.schematic = BenchmarkFixtures.createRoadSchematic(levelSettings, 2048, 0x5EED);
+        if(this.withSchematic) this.plotManager.getPlotSchematic().init(this.schematic);
+
+        final int minY = LevelUtils.getChunkMinY(levelSettings.getDimension());
+        final int maxY = LevelUtils.getChunkMaxY(levelSettings.getDimension());
+        final int chunks = (levelSettings.getTotalSize() + 15) >> 4;
+
+        this.chunks = new FullChunk[chunks * chunks];
+        this.shapes = new ShapeType[chunks * chunks][];
+        for(int chunkX = 0; chunkX < chunks; chunkX++) {
+            for(int chunkZ = 0; chunkZ < chunks; chunkZ++) {
+                final int index = chunkX * chunks + chunkZ;
+                this.chunks[index] = InMemoryChunk.create(chunkX, chunkZ, minY, maxY);
+                this.shapes[index] = this.plotManager.getShapes(chunkX << 4, chunkZ << 4);
+            }
+        }
+    }
+
+    @Benchmark
+    public FullChunk[] generateChunks() {
+        for(FullChunk chunk : this.chunks) this.plotGenerator.generateChunk(this.plotManager, chunk);
+        return this.chunks;
+    }
+
+    @Benchmark
+    public FullChunk[] generateChunksParallel() {
+        Arrays.stream(this.chunks).parallel().forEach(chunk -> this.plotGenerator.generateChunk(this.plotManager, chunk));
+        return this.chunks;
+    }
+
+    @Benchmark
+    public FullChunk[] buildSchematicInChunks() {
+        final Vector3 start = new Vector3(0, LevelUtils.getChunkMinY(this.plotManager.getLevelSettings().getDimension()), 0);
+        for(int i = 0; i < this.chunks.length; i++)
+            this.schematic.buildInChunk(start, this.chunks[i], this.shapes[i], ALL_SHAPES, null, null, null, null);
+        return this.chunks;
+    }
+
+}
@@ -0,0 +1,137 @@
+/*
+ * Copyright 2022 KCodeYT
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ms.kevi.plotplugin.benchmark;
+
+import cn.nukkit.blockstate.BlockState;
+import cn.nukkit.level.format.FullChunk;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * An array backed chunk which only implements the part of {@link FullChunk}
+ * the plugin uses to generate and edit blocks, so it works without a server.
+ *
+ * @author Kevims KCodeYT
+ * @version 1.0
+ */
+public class InMemoryChunk implements InvocationHandler {
+
+    private static final int LAYERS = 2;
+
+    private final int chunkX;
+    private final int chunkZ;
+    private final int minY;
+    private final int height;
+
+    private final BlockState[] blockStates;
+    private final int[] biomes;
+    private final LongAdder blockWrites;
+
+    private boolean generated;
+    private boolean populated;
+
+    private InMemoryChunk(int chunkX, int chunkZ, int minY, int maxY, LongAdder blockWrites) {
+        this.chunkX = chunkX;
+        this.chunkZ = chunkZ;
+        this.minY = minY;
+        this.height = maxY - minY + 1;
+        this.blockStates = new BlockState[LAYERS * 256 * this.height];
+        this.biomes = new int[256];
+        this.blockWrites = blockWrites;
+        Arrays.fill(this.blockStates, BlockState.AIR);
+    }
+
+    public static FullChunk create(int chunkX, int chunkZ, int minY, int maxY) {
+        return create(chunkX, chunkZ, minY, maxY, new LongAdder());
+    }
+
+    /**
+     * @param blockWrites incremented for every block state written into the chunk
+     */
+    public static FullChunk create(int chunkX, int chunkZ, int minY, int maxY, LongAdder blockWrites) {
+        return (FullChunk) Proxy.newProxyInstance(
+                InMemoryChunk.class.getClassLoader(),
+                new Class[]{FullChunk.class},
+                new InMemoryChunk(chunkX, chunkZ, minY, maxY, blockWrites)
+        );
+    }
+
+    private int index(int x, int y, int z, int layer) {
+        return ((layer * this.height + (y - this.minY)) << 8) | ((z & 15) << 4) | (x & 15);
+    }
+
+    private BlockState getBlockState(int x, int y, int z, int layer) {
+        return this.blockStates[this.index(x, y, z, layer)];
+    }
+
+    private void setBlockState(int x, int y, int z, int layer, BlockState blockState) {
+        this.blockStates[this.index(x, y, z, layer)] = blockState;
+        this.blockWrites.increment();
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) {
+        switch(method.getName()) {
+            case "getX":
+                return this.chunkX;
+            case "getZ":
+                return this.chunkZ;
+            case "getBlockState":
+                return this.getBlockState((int) args[0], (int) args[1], (int) args[2], args.length > 3 ? (int) args[3] : 0);
+            case "setBlockState":
+                this.setBlockState((int) args[0], (int) args[1], (int) args[2], 0, (BlockState) args[3]);
+                return method.getReturnType() == boolean.class ? true : null;
+            case "setBlockStateAtLayer":
+                this.setBlockState((int) args[0], (int) args[1], (int) args[2], (int) args[3], (BlockState) args[4]);
+                return method.getReturnType() == boolean.class ? true : null;
+            case "getBiomeId":
+                return this.biomes[(((int) args[1] & 15) << 4) | ((int) args[0] & 15)];
+            case "setBiomeId":
+                this.biomes[(((int) args[1] & 15) << 4) | ((int) args[0] & 15)] = ((Number) args[2]).intValue();
+                return null;
+            case "getEntities":
+            case "getBlockEntities":
+                return Collections.emptyMap();
+            case "getProvider":
+                return null;
+            case "isGenerated":
+                return this.generated;
+            case "setGenerated":
+                this.generated = args == null || args.length == 0 || (boolean) args[0];
+                return null;
+            case "isPopulated":
+                return this.populated;
+            case "setPopulated":
+                this.populated = args == null || args.length == 0 || (boolean) args[0];
+                return null;
+            case "hashCode":
+                return System.identityHashCode(proxy);
+            case "equals":
+                return proxy == args[0];
+            case "toString":
+                return "InMemoryChunk[" + this.chunkX + ", " + this.chunkZ + "]";
+            default:
+                throw new UnsupportedOperationException("InMemoryChunk does not support " + method);
+        }
+    }
+
+}
@@ -0,0 +1,171 @@
+/*
+ * Copyright 2022 KCodeYT
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ms.kevi.plotplugin.benchmark;
+
+import cn.nukkit.blockentity.BlockEntity;
+import cn.nukkit.entity.Entity;
+import cn.nukkit.level.format.FullChunk;
+import it.unimi.dsi.fastutil.longs.Long2LongMap;
+import it.unimi.dsi.fastutil.longs.Long2LongOpenHashMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import ms.kevi.plotplugin.generator.PlotGenerator;
+import ms.kevi.plotplugin.manager.PlotManager;
+import ms.kevi.plotplugin.util.LevelUtils;
+import ms.kevi.plotplugin.util.PlotLevelSettings;
+import ms.kevi.plotplugin.util.async.BlockChanges;
+import ms.kevi.plotplugin.util.async.LevelAccess;
+
+import java.util.Collection;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * An in memory level made of {@link InMemoryChunk}s. Chunks are generated by the
+ * {@link PlotGenerator} on first access, just like a server would do it.
+ * Counts the written blocks, resent chunks and sent block updates so plot operations can be measured.
+ *
+ * @author Kevims KCodeYT
+ * @version 1.0
+ */
+public class InMemoryLevel implements LevelAccess {
+
+    private final PlotManager plotManager;
+    private final PlotGenerator plotGenerator;
+    private final int minY;
+    private final int maxY;
+
+    private final Long2ObjectMap<FullChunk> chunks;
+    private final Long2LongMap chunkResendsByChunk;
+    private final LongAdder blockWrites;
+    private final LongAdder chunkResends;
+    private final LongAdder blockUpdates;
+    private final LongAdder entityClears;
+
+    public InMemoryLevel(PlotManager plotManager) {
+        final PlotLevelSettings levelSettings = plotManager.getLevelSettings();
+        this.plotManager = plotManager;
+        this.plotGenerator = new PlotGenerator();
+        this.minY = LevelUtils.getChunkMinY(levelSettings.getDimension());
+        this.maxY = LevelUtils.getChunkMaxY(levelSettings.getDimension());
+        this.chunks = new Long2ObjectOpenHashMap<>();
+        this.chunkResendsByChunk = new Long2LongOpenHashMap();
+        this.blockWrites = new LongAdder();
+        this.chunkResends = new LongAdder();
+        this.blockUpdates = new LongAdder();
+        this.entityClears = new LongAdder();
+
+        plotManager.initLevel(this, this.plotGenerator);
+    }
+
+    private static long chunkKey(int chunkX, int chunkZ) {
+        return ((long) chunkX << 32) | (chunkZ & 0xFFFFFFFFL);
+    }
+
+    @Override
+    public synchronized FullChunk getChunk(int chunkX, int chunkZ) {
+        return this.chunks.computeIfAbsent(chunkKey(chunkX, chunkZ), key -> {
+            final FullChunk fullChunk = InMemoryChunk.create(chunkX, chunkZ, this.minY, this.maxY, this.blockWrites);
+            this.plotGenerator.generateChunk(this.plotManager, fullChunk);
+            fullChunk.setGenerated();
+            return fullChunk;
+        });
+    }
+
+    @Override
+    public synchronized boolean isChunkLoaded(int chunkX, int chunkZ) {
+        return this.chunks.containsKey(chunkKey(chunkX, chunkZ));
+    }
+
+    @Override
+    public CompletableFuture<FullChunk> loadChunk(int chunkX, int chunkZ, boolean create) {
+        return CompletableFuture.completedFuture(create || this.isChunkLoaded(chunkX, chunkZ) ? this.getChunk(chunkX, chunkZ) : null);
+    }
+
+    @Override
+    public void releaseChunk(int chunkX, int chunkZ) {
+    }
+
+    @Override
+    public boolean isChunkPinned(int chunkX, int chunkZ) {
+        return false;
+    }
+
+    @Override
+    public void markChunkModified(int chunkX, int chunkZ) {
+        // chunks of the in memory level are never saved
+    }
+
+    @Override
+    public synchronized void resendChunk(int chunkX, int chunkZ) {
+        this.chunkResends.increment();
+        this.chunkResendsByChunk.mergeLong(chunkKey(chunkX, chunkZ), 1, Long::sum);
+    }
+
+    @Override
+    public void sendBlockChanges(BlockChanges blockChanges) {
+        this.blockUpdates.add(blockChanges.size());
+    }
+
+    @Override
+    public void closeEntities(Collection<Entity> entities, Collection<BlockEntity> blockEntities) {
+        this.entityClears.increment();
+    }
+
+    /**
+     * Generates all chunks from chunkX1;chunkZ1 to chunkX2;chunkZ2 and resets the counters afterwards.
+     */
+    public void preload(int chunkX1, int chunkZ1, int chunkX2, int chunkZ2) {
+        for(int chunkX = chunkX1; chunkX <= chunkX2; chunkX++)
+            for(int chunkZ = chunkZ1; chunkZ <= chunkZ2; chunkZ++)
+                this.getChunk(chunkX, chunkZ);
+        this.resetCounters();
+    }
+
+    public synchronized void resetCounters() {
+        this.blockWrites.reset();
+        this.chunkResends.reset();
+        this.blockUpdates.reset();
+        this.entityClears.reset();
+        this.chunkResendsByChunk.clear();
+    }
+
+    public synchronized int getLoadedChunks() {
+        return this.chunks.size();
+    }
+
+    public long getBlockWrites() {
+        return this.blockWrites.sum();
+    }
+
+    public long getChunkResends() {
+        return this.chunkResends.sum();
+    }
+
+    public synchronized long getChunkResends(int chunkX, int chunkZ) {
+        return this.chunkResendsByChunk.get(chunkKey(chunkX, chunkZ));
+    }
+
+    public long getBlockUpdates() {
+        return this.blockUpdates.sum();
+    }
+
+    public long getEntityClears() {
+        return this.entityClears.sum();
+    }
+
+}
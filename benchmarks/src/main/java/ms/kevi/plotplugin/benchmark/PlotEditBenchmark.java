@@ -0,0 +1,119 @@
+/*
+ * Copyright 2022 KCodeYT
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ms.kevi.plotplugin.benchmark;
+
+import ms.kevi.plotplugin.PlotPlugin;
+import ms.kevi.plotplugin.manager.PlotManager;
+import ms.kevi.plotplugin.util.Plot;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the merge, unlink and clear pipelines of the {@link PlotManager}
+ * against an {@link InMemoryLevel}. The written blocks and resent chunks are
+ * reported as secondary results per operation.
+ *
+ * @author Kevims KCodeYT
+ * @version 1.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PlotEditBenchmark {
+
+    @Param({"2", "4"})
+    private int mergeSize;
+
+    private PlotManager plotManager;
+    private InMemoryLevel level;
+    private Plot plot;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        final PlotPlugin plugin = BenchmarkFixtures.createPlugin();
+        BenchmarkFixtures.setOption(plugin, "skipPristinePlotChunks", true);
+        this.plotManager = BenchmarkFixtures.createPlotManager(plugin, "benchmark_edit_" + this.mergeSize);
+        this.level = new InMemoryLevel(this.plotManager);
+
+        final int chunks = (this.mergeSize * this.plotManager.getLevelSettings().getTotalSize()) >> 4;
+        this.level.preload(-1, -1, chunks + 1, chunks + 1);
+        this.plot = this.plotManager.getPlotById(0, 0);
+        this.plotManager.getPlotModifications().trackAllPlots();
+    }
+
+    @Setup(Level.Iteration)
+    public void resetCounters() {
+        this.level.resetCounters();
+    }
+
+    @Benchmark
+    public void mergeAndUnlink(EditCounters counters) {
+        for(int x = 0; x < this.mergeSize; x++) {
+            for(int z = 0; z < this.mergeSize; z++) {
+                if(x > 0) this.merge(this.plotManager.getPlotById(x - 1, z), 1);
+                if(z > 0) this.merge(this.plotManager.getPlotById(x, z - 1), 2);
+            }
+        }
+
+        this.plotManager.unlinkPlotFromAll(this.plot);
+        counters.record(this.level);
+    }
+
+    @Benchmark
+    public void clearPlot(EditCounters counters) {
+        final int plotSize = this.plotManager.getLevelSettings().getPlotSize();
+        for(int x = 0; x < plotSize; x += 16)
+            for(int z = 0; z < plotSize; z += 16)
+                this.plotManager.markModified(x, z);
+
+        this.plotManager.clearPlot(this.plot);
+        counters.record(this.level);
+    }
+
+    @Benchmark
+    public void clearPristinePlot(EditCounters counters) {
+        this.plotManager.clearPlot(this.plot);
+        counters.record(this.level);
+    }
+
+    private void merge(Plot plot, int dir) {
+        if(plot.isMerged(dir)) return;
+        this.plotManager.startMerge(plot, this.plotManager.calculatePlotsToMerge(plot, dir));
+    }
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class EditCounters {
+
+        public long blockWrites;
+        public long chunkResends;
+        public long blockUpdates;
+
+        private void record(InMemoryLevel level) {
+            this.blockWrites += level.getBlockWrites();
+            this.chunkResends += level.getChunkResends();
+            this.blockUpdates += level.getBlockUpdates();
+            level.resetCounters();
+        }
+
+    }
+
+}
@@ -0,0 +1,85 @@
+/*
+ * Copyright 2022 KCodeYT
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ms.kevi.plotplugin.benchmark;
+
+import ms.kevi.plotplugin.PlotPlugin;
+import ms.kevi.plotplugin.manager.PlotManager;
+import ms.kevi.plotplugin.util.Plot;
+import ms.kevi.plotplugin.util.ShapeType;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the position and merge lookups of the {@link PlotManager}
+ * which are called by the listeners and the generator for nearly every event.
+ *
+ * @author Kevims KCodeYT
+ * @version 1.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PlotManagerBenchmark {
+
+    @Param({"4", "16", "32"})
+    private int mergeSize;
+
+    private PlotManager plotManager;
+    private Plot mergedPlot;
+    private int areaSize;
+    private int cursor;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        final PlotPlugin plugin = BenchmarkFixtures.createPlugin();
+        this.plotManager = BenchmarkFixtures.createPlotManager(plugin, "benchmark_" + this.mergeSize);
+        BenchmarkFixtures.mergeSquare(this.plotManager, this.mergeSize);
+
+        this.mergedPlot = this.plotManager.getPlotById(this.mergeSize / 2, this.mergeSize / 2);
+        this.areaSize = this.mergeSize * this.plotManager.getLevelSettings().getTotalSize();
+    }
+
+    private int nextCoordinate() {
+        this.cursor = (this.cursor + 7919) % (this.areaSize * this.areaSize);
+        return this.cursor;
+    }
+
+    @Benchmark
+    public Plot getMergedPlot() {
+        final int coordinate = this.nextCoordinate();
+        return this.plotManager.getMergedPlot(coordinate % this.areaSize, coordinate / this.areaSize);
+    }
+
+    @Benchmark
+    public ShapeType[] getShapes() {
+        final int coordinate = this.nextCoordinate();
+        return this.plotManager.getShapes((coordinate % this.areaSize) & ~15, (coordinate / this.areaSize) & ~15);
+    }
+
+    @Benchmark
+    public void getConnectedPlots(Blackhole blackhole) {
+        final Set<Plot> plots = this.plotManager.getConnectedPlots(this.mergedPlot);
+        blackhole.consume(plots);
+    }
+
+}
@@ -0,0 +1,84 @@
+/*
+ * Copyright 2022 KCodeYT
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ms.kevi.plotplugin.benchmark;
+
+import cn.nukkit.utils.BinaryStream;
+import ms.kevi.plotplugin.schematic.Schematic;
+import ms.kevi.plotplugin.schematic.format.SchematicSerializer;
+import ms.kevi.plotplugin.schematic.format.SchematicSerializers;
+import ms.kevi.plotplugin.util.PlotLevelSettings;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks writing and reading road schematics with the latest {@link SchematicSerializer}.
+ *
+ * @author Kevims KCodeYT
+ * @version 1.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SchematicBenchmark {
+
+    @Param({"1024", "16384"})
+    private int blocks;
+
+    private SchematicSerializer serializer;
+    private Schematic schematic;
+    private byte[] serialized;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        BenchmarkFixtures.createPlugin();
+        this.serializer = SchematicSerializers.getLatest();
+        this.schematic = BenchmarkFixtures.createRoadSchematic(new PlotLevelSettings(), this.blocks, 0x5EED);
+
+        final BinaryStream binaryStream = new BinaryStream();
+        this.serializer.serialize(this.schematic, binaryStream);
+        this.serialized = binaryStream.getBuffer();
+    }
+
+    @Benchmark
+    public byte[] serialize() {
+        final BinaryStream binaryStream = new BinaryStream();
+        this.serializer.serialize(this.schematic, binaryStream);
+        return binaryStream.getBuffer();
+    }
+
+    @Benchmark
+    public Schematic deserialize() {
+        final Schematic schematic = new Schematic();
+        this.serializer.deserialize(schematic, new BinaryStream(this.serialized));
+        return schematic;
+    }
+
+    @Benchmark
+    public Schematic roundTrip() {
+        final BinaryStream binaryStream = new BinaryStream();
+        this.serializer.serialize(this.schematic, binaryStream);
+
+        final Schematic schematic = new Schematic();
+        this.serializer.deserialize(schematic, new BinaryStream(binaryStream.getBuffer()));
+        return schematic;
+    }
+
+}
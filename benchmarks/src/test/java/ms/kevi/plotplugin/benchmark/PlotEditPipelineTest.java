@@ -0,0 +1,136 @@
+/*
+ * Copyright 2022 KCodeYT
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package ms.kevi.plotplugin.benchmark;
+
+import cn.nukkit.block.Block;
+import cn.nukkit.blockstate.BlockState;
+import cn.nukkit.level.format.FullChunk;
+import ms.kevi.plotplugin.PlotPlugin;
+import ms.kevi.plotplugin.manager.PlotManager;
+import ms.kevi.plotplugin.util.LevelUtils;
+import ms.kevi.plotplugin.util.Plot;
+import ms.kevi.plotplugin.util.PlotLevelSettings;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs the merge, unlink and clear pipelines of the {@link PlotManager} against an {@link InMemoryLevel}
+ * and checks the resulting blocks together with the written blocks and the updates sent to the players.
+ *
+ * @author Kevims KCodeYT
+ * @version 1.0
+ */
+public class PlotEditPipelineTest {
+
+    private static final BlockState STONE = BlockState.of(Block.STONE);
+
+    private PlotManager plotManager;
+    private PlotLevelSettings levelSettings;
+    private InMemoryLevel level;
+    private int groundY;
+
+    @BeforeEach
+    public void setup() {
+        final PlotPlugin plugin = BenchmarkFixtures.createPlugin();
+        BenchmarkFixtures.setOption(plugin, "skipPristinePlotChunks", true);
+        this.plotManager = BenchmarkFixtures.createPlotManager(plugin, "test_edit");
+        this.levelSettings = this.plotManager.getLevelSettings();
+        this.level = new InMemoryLevel(this.plotManager);
+        this.groundY = LevelUtils.getChunkMinY(this.levelSettings.getDimension()) + this.levelSettings.getGroundHeight();
+
+        final int chunks = (2 * this.levelSettings.getTotalSize()) >> 4;
+        this.level.preload(-1, -1, chunks + 1, chunks + 1);
+        this.plotManager.getPlotModifications().trackAllPlots();
+    }
+
+    private BlockState getBlockState(int x, int y, int z) {
+        return this.level.getChunk(x >> 4, z >> 4).getBlockState(x & 15, y, z & 15, 0);
+    }
+
+    @Test
+    public void clearOfPristinePlotWritesNothing() {
+        final Plot plot = this.plotManager.getPlotById(0, 0);
+
+        this.plotManager.clearPlot(plot);
+        assertEquals(0, this.level.getBlockWrites());
+        assertEquals(0, this.level.getChunkResends());
+        assertEquals(0, this.level.getBlockUpdates());
+
+        this.plotManager.clearPlot(plot);
+        assertEquals(0, this.level.getBlockWrites());
+        assertEquals(0, this.level.getChunkResends());
+        assertEquals(0, this.level.getBlockUpdates());
+    }
+
+    @Test
+    public void clearResetsModifiedBlocks() {
+        final FullChunk fullChunk = this.level.getChunk(0, 0);
+        fullChunk.setBlockStateAtLayer(5, this.groundY, 5, 0, STONE);
+        fullChunk.setBlockStateAtLayer(5, this.groundY + 5, 5, 0, STONE);
+        this.plotManager.markModified(5, 5);
+        this.level.resetCounters();
+
+        this.plotManager.clearPlot(this.plotManager.getPlotById(0, 0));
+        assertEquals(this.levelSettings.getLastLayerState(), this.getBlockState(5, this.groundY, 5));
+        assertEquals(BlockState.AIR, this.getBlockState(5, this.groundY + 5, 5));
+
+        // only the two changed blocks are written and sent, the chunk itself is not sent again
+        assertEquals(2, this.level.getBlockWrites());
+        assertEquals(2, this.level.getBlockUpdates());
+        assertEquals(0, this.level.getChunkResends());
+
+        this.level.resetCounters();
+        this.plotManager.clearPlot(this.plotManager.getPlotById(0, 0));
+        assertEquals(0, this.level.getBlockWrites());
+    }
+
+    @Test
+    public void mergeOpensRoadAndUnlinkClosesIt() {
+        final Plot plot = this.plotManager.getPlotById(0, 0);
+        final Plot other = this.plotManager.getPlotById(1, 0);
+        final int roadX = this.levelSettings.getPlotSize() + this.levelSettings.getRoadSize() / 2;
+        final int wallX = this.levelSettings.getPlotSize();
+
+        this.plotManager.startMerge(plot, this.plotManager.calculatePlotsToMerge(plot, 1));
+        assertTrue(plot.isMerged(1));
+        assertTrue(other.isMerged(3));
+        assertEquals(this.levelSettings.getLastLayerState(), this.getBlockState(roadX, this.groundY, 5));
+        assertEquals(BlockState.AIR, this.getBlockState(wallX, this.groundY + 1, 5));
+        assertTrue(this.level.getBlockWrites() > 0);
+        assertTrue(this.level.getChunkResends() + this.level.getBlockUpdates() > 0);
+
+        // merging plots which are already merged only writes blocks which differ, so nothing
+        this.level.resetCounters();
+        this.plotManager.startMerge(plot, this.plotManager.calculatePlotsToMerge(plot, 1));
+        assertEquals(0, this.level.getBlockWrites());
+        assertEquals(0, this.level.getChunkResends());
+        assertEquals(0, this.level.getBlockUpdates());
+
+        this.level.resetCounters();
+        this.plotManager.unlinkPlotFromAll(plot);
+        assertFalse(plot.isMerged(1));
+        assertFalse(other.isMerged(3));
+        assertEquals(this.levelSettings.getRoadState(), this.getBlockState(roadX, this.groundY, 5));
+        assertEquals(this.levelSettings.getWallPlotState(), this.getBlockState(wallX, this.groundY + 1, 5));
+        assertTrue(this.level.getBlockWrites() > 0);
+        assertTrue(this.level.getChunkResends() + this.level.getBlockUpdates() > 0);
+    }
+
+}
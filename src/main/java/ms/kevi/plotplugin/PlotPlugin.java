@@ -27,24 +27,31 @@ import lombok.Setter;
 import ms.kevi.plotplugin.command.PlotCommand;
 import ms.kevi.plotplugin.generator.PlotGenerator;
 import ms.kevi.plotplugin.lang.Language;
+import ms.kevi.plotplugin.listener.BlockChangeListener;
 import ms.kevi.plotplugin.listener.PlotLevelRegistrationListener;
 import ms.kevi.plotplugin.listener.PlotListener;
+import ms.kevi.plotplugin.manager.AccessCache;
+import ms.kevi.plotplugin.manager.PlayerIndex;
 import ms.kevi.plotplugin.manager.PlayerManager;
 import ms.kevi.plotplugin.manager.PlayerNameFunction;
+import ms.kevi.plotplugin.manager.PlayerStorage;
 import ms.kevi.plotplugin.manager.PlotManager;
+import ms.kevi.plotplugin.metrics.MetricTimer;
+import ms.kevi.plotplugin.metrics.PlotMetrics;
 import ms.kevi.plotplugin.util.BlockEntry;
+import ms.kevi.plotplugin.util.Plot;
 import ms.kevi.plotplugin.util.PlotLevelRegistration;
+import ms.kevi.plotplugin.util.PlotFlags;
 import ms.kevi.plotplugin.util.PlotLevelSettings;
 import ms.kevi.plotplugin.util.Utils;
-import ms.kevi.plotplugin.util.async.TaskExecutor;
 
 import java.io.BufferedReader;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStreamReader;
 import java.util.*;
-import java.util.concurrent.ThreadLocalRandom;
-import java.util.stream.Collectors;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * @author Kevims KCodeYT
@@ -53,26 +60,44 @@ import java.util.stream.Collectors;
 public class PlotPlugin extends PluginBase {
 
     private static final String DEFAULT_LANGUAGE = "en_US";
+    private static final Object NO_PLOT_MANAGER = new Object();
+    private static final int MAX_WORLD_LOADER_THREADS = 4;
     public static PlotPlugin INSTANCE;
 
     private Config worldsConfig;
-    private Config playersConfig;
+    private PlayerStorage playerStorage;
 
     @Getter
     private Language language;
 
     @Getter
     private Map<String, PlotManager> plotManagerMap;
+    /**
+     * The plot managers indexed by the id of their level, levels which are known to be no plot level hold {@link #NO_PLOT_MANAGER}.
+     * Replaced on every change, so lookups from generator threads need no lock.
+     */
+    private volatile Object[] levelPlotManagers = new Object[0];
+    @Getter
     private PlayerManager playerManager;
 
+    @Getter
+    private final PlayerIndex playerIndex = new PlayerIndex();
+
+    @Getter
+    private final PlotMetrics metrics = new PlotMetrics();
+
+    @Getter
+    private final AccessCache accessCache = new AccessCache();
+
+    @Getter
+    private File metricsFile;
+
     @Getter
     private Level defaultPlotLevel;
 
     @Getter
     private Map<Player, PlotLevelRegistration> levelRegistrationMap;
 
-    private boolean namesLoad;
-
     @Getter
     @Setter
     private PlayerNameFunction nameFunction;
@@ -88,6 +113,18 @@ public class PlotPlugin extends PluginBase {
     @Getter
     private boolean addOtherCommands = true;
 
+    @Getter
+    private boolean skipPristineChunks = false;
+
+    @Getter
+    private boolean skipPristinePlotChunks = false;
+
+    @Getter
+    private int blockUpdateThreshold = 64;
+
+    @Getter
+    private int chunkLoadsPerTick = 16;
+
     @Getter
     private final List<BlockEntry> borderEntries = new ArrayList<>();
 
@@ -103,7 +140,8 @@ public class PlotPlugin extends PluginBase {
     @Override
     public void onEnable() {
         this.worldsConfig = new Config(new File(this.getDataFolder(), "worlds.yml"), Config.YAML);
-        this.playersConfig = new Config(new File(this.getDataFolder(), "players.yml"), Config.YAML);
+        this.playerStorage = new PlayerStorage(this, new File(this.getDataFolder(), "players.txt"));
+        this.metricsFile = new File(this.getDataFolder(), "stats.json");
 
         final File langDir = new File(this.getDataFolder(), "lang");
         final File[] files = langDir.listFiles();
@@ -153,6 +191,34 @@ public class PlotPlugin extends PluginBase {
 
         this.addOtherCommands = config.getBoolean("add_other_commands");
 
+        if(!config.exists("skip_pristine_chunks")) {
+            config.set("skip_pristine_chunks", this.skipPristineChunks);
+            config.save();
+        }
+
+        this.skipPristineChunks = config.getBoolean("skip_pristine_chunks");
+
+        if(!config.exists("skip_pristine_plot_chunks")) {
+            config.set("skip_pristine_plot_chunks", this.skipPristinePlotChunks);
+            config.save();
+        }
+
+        this.skipPristinePlotChunks = config.getBoolean("skip_pristine_plot_chunks");
+
+        if(!config.exists("block_update_threshold")) {
+            config.set("block_update_threshold", this.blockUpdateThreshold);
+            config.save();
+        }
+
+        this.blockUpdateThreshold = config.getInt("block_update_threshold");
+
+        if(!config.exists("chunk_loads_per_tick")) {
+            config.set("chunk_loads_per_tick", this.chunkLoadsPerTick);
+            config.save();
+        }
+
+        this.chunkLoadsPerTick = Math.max(1, config.getInt("chunk_loads_per_tick"));
+
         if(!config.exists("borders")) {
             final List<Map<String, Object>> defaultWalls = new ArrayList<>();
             defaultWalls.add(Utils.createMap(List.of("name", "image_type", "image_data"), List.of("reset_to_default", "PATH", "textures/ui/undoArrow")));
@@ -193,13 +259,40 @@ public class PlotPlugin extends PluginBase {
 
         final Server server = this.getServer();
 
-        for(Object o : this.worldsConfig.getList("levels", new ArrayList<>())) {
-            if(o instanceof final String levelName) {
+        final Map<String, CompletableFuture<PlotManager>> loadingPlotManagers = new LinkedHashMap<>();
+        for(Object o : this.worldsConfig.getList("levels", new ArrayList<>()))
+            if(o instanceof final String levelName) loadingPlotManagers.put(levelName, null);
+
+        // The flags are registered into the already loaded plot managers, so the registry must not be initialized concurrently by a loader thread
+        PlotFlags.values();
+
+        final ExecutorService worldLoader = this.createWorldLoader(loadingPlotManagers.size());
+        for(String levelName : loadingPlotManagers.keySet())
+            loadingPlotManagers.put(levelName, CompletableFuture.supplyAsync(() -> {
+                final long startTime = System.nanoTime();
                 final PlotManager plotManager = new PlotManager(this, levelName);
+                this.metrics.record(MetricTimer.WORLD_LOAD, startTime);
+                return plotManager;
+            }, worldLoader));
+
+        try {
+            for(Map.Entry<String, CompletableFuture<PlotManager>> entry : loadingPlotManagers.entrySet()) {
+                final String levelName = entry.getKey();
+                final PlotManager plotManager;
+                try {
+                    // The generator needs the plot manager of a level as soon as the level is generated or loaded
+                    plotManager = entry.getValue().join();
+                } catch(CompletionException e) {
+                    this.getLogger().error("Could not load the plot world " + levelName + "!", e.getCause());
+                    continue;
+                }
+
                 this.plotManagerMap.put(levelName, plotManager);
 
-                if(!server.isLevelGenerated(levelName))
+                if(!server.isLevelGenerated(levelName)) {
                     server.generateLevel(levelName, ThreadLocalRandom.current().nextLong(), PlotGenerator.class);
+                    plotManager.getPlotModifications().trackAllPlots();
+                }
 
                 Level level;
                 if((level = server.getLevelByName(levelName)) == null) {
@@ -216,16 +309,27 @@ public class PlotPlugin extends PluginBase {
                     this.defaultPlotLevel = level;
                 plotManager.initLevel(level);
             }
+        } finally {
+            worldLoader.shutdown();
+        }
+
+        try {
+            this.playerStorage.load(this.playerIndex, new File(this.getDataFolder(), "players.yml"));
+        } catch(IOException e) {
+            this.getLogger().error("Could not load the players of this plugin!", e);
         }
 
-        this.playerManager = new PlayerManager(this.playersConfig.getAll().keySet().stream().map(Object::toString).collect(Collectors.toList()));
-        server.getScheduler().scheduleDelayedTask(this, this::loadPlayerNames, 1);
+        this.playerManager = new PlayerManager(() -> this.nameFunction == null ? this.defaultNameFunction : this.nameFunction, this.metrics);
 
         server.getPluginManager().registerEvents(new PlotListener(this), this);
         server.getPluginManager().registerEvents(new PlotLevelRegistrationListener(this), this);
+        server.getPluginManager().registerEvents(new BlockChangeListener(this), this);
 
         server.getCommandMap().register("plot", new PlotCommand(this));
 
+        server.getScheduler().scheduleRepeatingTask(this, () -> this.metrics.time(MetricTimer.PLAYERS_FLUSH, this.playerStorage::flush), 100, true);
+        server.getScheduler().scheduleRepeatingTask(this, this::dumpMetrics, 1200, true);
+
         server.getScheduler().scheduleDelayedTask(this, () -> {
             for(PlotManager plotManager : this.plotManagerMap.values()) {
                 plotManager.savePlots();
@@ -233,16 +337,34 @@ public class PlotPlugin extends PluginBase {
         }, 6000);
     }
 
-    private void loadPlayerNames() {
-        if(!this.namesLoad) {
-            this.namesLoad = true;
-            this.playerManager.load(this.nameFunction == null ? this.defaultNameFunction : this.nameFunction);
-        }
+    /**
+     * Creates the pool which loads the data of the plot worlds while the server loads their levels.
+     */
+    private ExecutorService createWorldLoader(int worlds) {
+        final int threads = Math.max(1, Math.min(Math.min(worlds, Runtime.getRuntime().availableProcessors()), MAX_WORLD_LOADER_THREADS));
+        final AtomicInteger threadId = new AtomicInteger();
+        return Executors.newFixedThreadPool(threads, runnable -> {
+            final Thread thread = new Thread(runnable, "PlotPlugin World Loader #" + threadId.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
     }
 
     @Override
     public void onDisable() {
+        if(this.playerStorage != null) this.playerStorage.flush();
+        if(this.playerManager != null) this.playerManager.shutdown();
+        if(this.metricsFile != null) this.dumpMetrics();
+    }
 
+    public boolean dumpMetrics() {
+        try {
+            this.metrics.dump(this.metricsFile);
+            return true;
+        } catch(IOException e) {
+            this.getLogger().warning("Could not write the plot statistics!", e);
+            return false;
+        }
     }
 
     public void reloadPlots() {
@@ -252,13 +374,60 @@ public class PlotPlugin extends PluginBase {
 
     public PlotManager getPlotManager(Level level) {
         if(level == null) return null;
-        return this.getPlotManager(level.getFolderName());
+
+        final Object[] levelPlotManagers = this.levelPlotManagers;
+        final int levelId = level.getId();
+        Object plotManager = levelId >= 0 && levelId < levelPlotManagers.length ? levelPlotManagers[levelId] : null;
+        if(plotManager == null) plotManager = this.resolvePlotManager(level);
+
+        return plotManager == NO_PLOT_MANAGER ? null : (PlotManager) plotManager;
+    }
+
+    /**
+     * Makes the plot manager resolvable by its level, called as soon as the level of a plot manager is loaded.
+     */
+    public void registerLevel(Level level, PlotManager plotManager) {
+        this.storeLevelPlotManager(level, plotManager);
+    }
+
+    /**
+     * Looks up the plot manager of a level which was not resolved before by its name and remembers the result for the level.
+     * Needed for lookups before the plot manager got its level, for example by the generator while the level is generated.
+     */
+    private Object resolvePlotManager(Level level) {
+        return this.storeLevelPlotManager(level, this.plotManagerMap == null ? null : this.getPlotManager(level.getFolderName()));
+    }
+
+    private synchronized Object storeLevelPlotManager(Level level, PlotManager plotManager) {
+        final Object value = plotManager == null ? NO_PLOT_MANAGER : plotManager;
+        final int levelId = level.getId();
+        if(levelId < 0) return value;
+
+        final Object[] levelPlotManagers = Arrays.copyOf(this.levelPlotManagers, Math.max(this.levelPlotManagers.length, levelId + 1));
+        levelPlotManagers[levelId] = value;
+        this.levelPlotManagers = levelPlotManagers;
+        return value;
     }
 
     public PlotManager getPlotManager(String levelName) {
         return this.plotManagerMap.getOrDefault(levelName, null);
     }
 
+    public Map<PlotManager, List<Plot>> getPlotsByOwner(UUID ownerId) {
+        final Map<PlotManager, List<Plot>> plots = new LinkedHashMap<>();
+        for(PlotManager plotManager : this.plotManagerMap.values())
+            if(plotManager.getPlotCountByOwner(ownerId) > 0)
+                plots.put(plotManager, plotManager.getPlotsByOwner(ownerId));
+        return plots;
+    }
+
+    public int getPlotCountByOwner(UUID ownerId) {
+        int count = 0;
+        for(PlotManager plotManager : this.plotManagerMap.values())
+            count += plotManager.getPlotCountByOwner(ownerId);
+        return count;
+    }
+
     public Level createLevel(String levelName, boolean defaultLevel, PlotLevelSettings levelSettings) {
         if(this.getServer().isLevelGenerated(levelName)) return null;
 
@@ -266,6 +435,7 @@ public class PlotPlugin extends PluginBase {
         this.plotManagerMap.put(levelName, plotManager);
 
         this.getServer().generateLevel(levelName, ThreadLocalRandom.current().nextLong(), PlotGenerator.class);
+        plotManager.getPlotModifications().trackAllPlots();
         final Level level = this.getServer().getLevelByName(levelName);
 
         if(level == null) return null;
@@ -286,11 +456,10 @@ public class PlotPlugin extends PluginBase {
     }
 
     public void registerPlayer(Player player) {
-        this.playersConfig.set(player.getName(), player.getUniqueId().toString());
-        this.playersConfig.save(true);
+        if(this.playerIndex.put(player.getName(), player.getUniqueId()))
+            this.playerStorage.queue(player.getName(), player.getUniqueId());
 
-        final String playerName = player.getName();
-        TaskExecutor.executeAsync(() -> (this.nameFunction == null ? this.defaultNameFunction : this.nameFunction).execute(player.getName(), displayName -> this.playerManager.add(playerName, displayName)));
+        this.playerManager.refresh(player.getName());
     }
 
     public UUID getUniqueIdByName(String playerName) {
@@ -302,12 +471,7 @@ public class PlotPlugin extends PluginBase {
         if(allowEveryone && firstPlayerName.equals(Utils.STRING_EVERYONE))
             return Utils.UUID_EVERYONE;
 
-        for(Map.Entry<String, Object> entry : this.playersConfig.getAll().entrySet()) {
-            if(entry.getKey().equalsIgnoreCase(firstPlayerName))
-                return UUID.fromString((String) entry.getValue());
-        }
-
-        return null;
+        return this.playerIndex.getUniqueId(firstPlayerName);
     }
 
     public String getCorrectName(UUID playerId) {
@@ -315,27 +479,12 @@ public class PlotPlugin extends PluginBase {
     }
 
     public String findPlayerName(String playerName) {
-        final String[] playerNames = this.playersConfig.getAll().keySet().toArray(new String[0]);
-        for(String name : playerNames) {
-            if(name.equalsIgnoreCase(playerName))
-                return name;
-        }
-
-        for(String name : playerNames) {
-            if(name.toLowerCase().startsWith(playerName.toLowerCase()))
-                return name;
-        }
-
-        return playerName;
+        final String name = this.playerIndex.findName(playerName);
+        return name != null ? name : playerName;
     }
 
     private String getNameByUniqueId(UUID uniqueId) {
-        for(Map.Entry<String, Object> entry : this.playersConfig.getAll().entrySet()) {
-            final String playerName = entry.getKey();
-            if(UUID.fromString((String) entry.getValue()).equals(uniqueId)) return playerName;
-        }
-
-        return null;
+        return this.playerIndex.getName(uniqueId);
     }
 
 }
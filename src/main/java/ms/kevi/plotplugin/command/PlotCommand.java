@@ -63,6 +63,7 @@ public class PlotCommand extends Command {
         this.subCommands.add(new SetOwnerCommand(this.plugin, this));
         this.subCommands.add(new SetRoadsCommand(this.plugin, this));
         this.subCommands.add(new SettingCommand(this.plugin, this));
+        this.subCommands.add(new StatsCommand(this.plugin, this));
         this.subCommands.add(new TeleportCommand(this.plugin, this));
         this.subCommands.add(new UndenyCommand(this.plugin, this));
         this.subCommands.add(new UnlinkCommand(this.plugin, this));
@@ -44,7 +44,7 @@ public class AutoCommand extends SubCommand {
             return false;
         }
 
-        final int ownedPlots = plotManager.getPlotsByOwner(player.getUniqueId()).size();
+        final int ownedPlots = plotManager.getPlotCountByOwner(player.getUniqueId());
         if(!player.hasPermission("plot.limit.unlimited")) {
             int maxLimit = -1;
             for(String permission : player.getEffectivePermissions().keySet()) {
@@ -66,26 +66,31 @@ public class AutoCommand extends SubCommand {
             }
         }
 
-        final Plot plot = plotManager.getNextFreePlot();
+        final Plot plot = plotManager.reserveNextFreePlot();
 
         if(plot == null) {
             player.sendMessage(this.translate(player, TranslationKey.AUTO_FAILURE));
             return false;
         }
 
-        final PlotPreClaimEvent plotPreClaimEvent = new PlotPreClaimEvent(player, plot, true, true, true);
-        this.plugin.getServer().getPluginManager().callEvent(plotPreClaimEvent);
+        try {
+            final PlotPreClaimEvent plotPreClaimEvent = new PlotPreClaimEvent(player, plot, true, true, true);
+            this.plugin.getServer().getPluginManager().callEvent(plotPreClaimEvent);
 
-        if(plotPreClaimEvent.isCancelled()) {
-            if(plotPreClaimEvent.isShowCancelMessage())
-                player.sendMessage(this.translate(player, TranslationKey.AUTO_FAILURE));
-            return false;
-        }
+            if(plotPreClaimEvent.isCancelled()) {
+                if(plotPreClaimEvent.isShowCancelMessage())
+                    player.sendMessage(this.translate(player, TranslationKey.AUTO_FAILURE));
+                return false;
+            }
 
-        plot.setOwner(player.getUniqueId());
-        if(plotPreClaimEvent.isBorderChanging())
-            plotManager.changeBorder(plot, plotManager.getLevelSettings().getClaimPlotState());
-        plotManager.savePlots();
+            plot.setOwner(player.getUniqueId());
+            if(plotPreClaimEvent.isBorderChanging())
+                plotManager.changeBorder(plot, plotManager.getLevelSettings().getClaimPlotState());
+            plotManager.savePlots();
+        } finally {
+            // Only released if the plot was not claimed, also if a listener of the pre claim event failed
+            plotManager.releasePlotReservation(plot);
+        }
 
         final PlotClaimEvent plotClaimEvent = new PlotClaimEvent(player, plot, true);
         this.plugin.getServer().getPluginManager().callEvent(plotClaimEvent);
@@ -45,7 +45,7 @@ public class ClaimCommand extends SubCommand {
             return false;
         }
 
-        final int ownedPlots = plotManager.getPlotsByOwner(player.getUniqueId()).size();
+        final int ownedPlots = plotManager.getPlotCountByOwner(player.getUniqueId());
         if(!player.hasPermission("plot.limit.unlimited")) {
             int maxLimit = -1;
             for(String permission : player.getEffectivePermissions().keySet()) {
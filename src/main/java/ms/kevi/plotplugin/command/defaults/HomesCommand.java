@@ -29,7 +29,6 @@ import ms.kevi.plotplugin.util.Plot;
 import ms.kevi.plotplugin.util.Utils;
 
 import java.util.ArrayList;
-import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -48,9 +47,7 @@ public class HomesCommand extends SubCommand {
     public boolean execute(Player player, String[] args) {
         final int page = Utils.parseInteger(args.length == 1 ? args[0] : args.length > 1 ? args[1] : "1") - 1;
 
-        final Map<PlotManager, List<Plot>> plots = new LinkedHashMap<>();
-        for(PlotManager plotManager : this.plugin.getPlotManagerMap().values())
-            plots.put(plotManager, plotManager.getPlotsByOwner(player.getUniqueId()));
+        final Map<PlotManager, List<Plot>> plots = this.plugin.getPlotsByOwner(player.getUniqueId());
 
         if(plots.isEmpty()) {
             player.sendMessage(this.translate(player, TranslationKey.HOMES_FAILURE));
@@ -58,7 +55,13 @@ public class HomesCommand extends SubCommand {
         }
 
         final List<Plot> allPlots = new ArrayList<>();
-        for(List<Plot> list : plots.values()) allPlots.addAll(list);
+        final List<Integer> homeIds = new ArrayList<>();
+        for(List<Plot> list : plots.values()) {
+            for(int i = 0; i < list.size(); i++) {
+                allPlots.add(list.get(i));
+                homeIds.add(i + 1);
+            }
+        }
 
         final PaginationList<Plot> pages = new PaginationList<>(allPlots, this.plugin.getPlotsPerPage());
 
@@ -69,12 +72,16 @@ public class HomesCommand extends SubCommand {
 
         player.sendMessage(this.translate(player, TranslationKey.HOMES_TITLE, page + 1, pages.size()));
 
-        for(Plot plot : pages.get(page))
+        final int pageStart = page * this.plugin.getPlotsPerPage();
+        final List<Plot> pagePlots = pages.get(page);
+        for(int i = 0; i < pagePlots.size(); i++) {
+            final Plot plot = pagePlots.get(i);
             player.sendMessage(this.translate(player, TranslationKey.HOMES_ENTRY,
-                    plots.get(plot.getManager()).indexOf(plot) + 1,
+                    homeIds.get(pageStart + i),
                     plot.getId(),
                     plot.getManager().getLevel().getName()
             ));
+        }
 
         player.sendMessage(this.translate(player, TranslationKey.HOMES_END));
         return true;
@@ -24,7 +24,8 @@ import ms.kevi.plotplugin.command.SubCommand;
 import ms.kevi.plotplugin.lang.TranslationKey;
 import ms.kevi.plotplugin.manager.PlotManager;
 import ms.kevi.plotplugin.util.Plot;
-import ms.kevi.plotplugin.util.PlotConfig;
+import ms.kevi.plotplugin.util.PlotFlag;
+import ms.kevi.plotplugin.util.PlotFlags;
 
 /**
  * @author Kevims KCodeYT
@@ -65,10 +66,9 @@ public class InfoCommand extends SubCommand {
         player.sendMessage(this.translate(player, TranslationKey.INFO_HELPERS, (helpers.length() > 0 ? helpers.substring(0, helpers.length() - 2 - helpersLastColors.length()) : "§c-----")));
         player.sendMessage(this.translate(player, TranslationKey.INFO_DENIED, (denied.length() > 0 ? denied.substring(0, denied.length() - 2 - deniedLastColors.length()) : "§c-----")));
 
-        for(PlotConfig.ConfigEnum configEnum : PlotConfig.ConfigEnum.values())
-            player.sendMessage(this.translate(player, configEnum.getConfig().getInfoTranslationKey(),
-                    this.translate(player, ((boolean) configEnum.getConfig().get(plot)) ? TranslationKey.ACTIVATED : TranslationKey.DEACTIVATED)
-            ));
+        for(PlotFlag<?> flag : PlotFlags.values())
+            if(flag.getInfoMessage() != null)
+                player.sendMessage(flag.getInfoMessage().get(player, flag.formatValue(player, plot)));
 
         player.sendMessage(this.translate(player, TranslationKey.INFO_END));
         return true;
@@ -19,16 +19,12 @@ package ms.kevi.plotplugin.command.defaults;
 import cn.nukkit.Player;
 import cn.nukkit.command.data.CommandParamType;
 import cn.nukkit.command.data.CommandParameter;
-import cn.nukkit.level.Level;
-import cn.nukkit.level.format.FullChunk;
 import ms.kevi.plotplugin.PlotPlugin;
 import ms.kevi.plotplugin.command.PlotCommand;
 import ms.kevi.plotplugin.command.SubCommand;
-import ms.kevi.plotplugin.generator.PlotGenerator;
 import ms.kevi.plotplugin.lang.TranslationKey;
 import ms.kevi.plotplugin.manager.PlotManager;
 import ms.kevi.plotplugin.util.Utils;
-import ms.kevi.plotplugin.util.async.TaskExecutor;
 
 /**
  * @author Kevims KCodeYT
@@ -51,22 +47,8 @@ public class RegenAllRoadsCommand extends SubCommand {
         }
 
         final int chunkRadius = Utils.parseInteger(args.length > 0 ? args[0] : "32", 32);
-        final Level level = player.getLevel();
-        final PlotGenerator plotGenerator = (PlotGenerator) level.getGenerator();
-
-        final int pChunkX = player.getChunkX();
-        final int pChunkZ = player.getChunkZ();
-
-        TaskExecutor.executeAsync(() -> {
-            for(int chunkX = -chunkRadius; chunkX <= chunkRadius; chunkX++) {
-                for(int chunkZ = -chunkRadius; chunkZ <= chunkRadius; chunkZ++) {
-                    final FullChunk fullChunk = level.getChunk(pChunkX + chunkX, pChunkZ + chunkZ, false);
-                    if(fullChunk != null) plotGenerator.regenerateChunk(plotManager, fullChunk);
-                }
-            }
-
-            player.sendMessage(this.translate(player, TranslationKey.REGENALLROADS_FINISHED));
-        });
+        plotManager.regenerateAllRoads(player.getChunkX(), player.getChunkZ(), chunkRadius,
+                () -> player.sendMessage(this.translate(player, TranslationKey.REGENALLROADS_FINISHED)));
 
         player.sendMessage(this.translate(player, TranslationKey.REGENALLROADS_START));
         return true;
@@ -17,15 +17,11 @@
 package ms.kevi.plotplugin.command.defaults;
 
 import cn.nukkit.Player;
-import cn.nukkit.level.Level;
-import cn.nukkit.level.format.FullChunk;
 import ms.kevi.plotplugin.PlotPlugin;
 import ms.kevi.plotplugin.command.PlotCommand;
 import ms.kevi.plotplugin.command.SubCommand;
-import ms.kevi.plotplugin.generator.PlotGenerator;
 import ms.kevi.plotplugin.lang.TranslationKey;
 import ms.kevi.plotplugin.manager.PlotManager;
-import ms.kevi.plotplugin.util.async.TaskExecutor;
 
 /**
  * @author Kevims KCodeYT
@@ -46,17 +42,8 @@ public class RegenRoadCommand extends SubCommand {
             return false;
         }
 
-        final Level level = player.getLevel();
-        final PlotGenerator plotGenerator = (PlotGenerator) level.getGenerator();
-
-        final int pChunkX = player.getChunkX();
-        final int pChunkZ = player.getChunkZ();
-
-        TaskExecutor.executeAsync(() -> {
-            final FullChunk fullChunk = level.getChunk(pChunkX, pChunkZ, false);
-            if(fullChunk != null) plotGenerator.regenerateChunk(plotManager, fullChunk);
-            player.sendMessage(this.translate(player, TranslationKey.REGENROAD_FINISHED));
-        });
+        plotManager.regenerateAllRoads(player.getChunkX(), player.getChunkZ(), 0,
+                () -> player.sendMessage(this.translate(player, TranslationKey.REGENROAD_FINISHED)));
 
         player.sendMessage(this.translate(player, TranslationKey.REGENROAD_START));
         return true;
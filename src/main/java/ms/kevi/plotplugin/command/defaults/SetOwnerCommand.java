@@ -73,7 +73,7 @@ public class SetOwnerCommand extends SubCommand {
             return false;
         }
 
-        final int ownedPlots = plotManager.getPlotsByOwner(targetId).size();
+        final int ownedPlots = plotManager.getPlotCountByOwner(targetId);
         if(!target.hasPermission("plot.limit.unlimited") && !player.hasPermission("plot.command.admin.setowner")) {
             int maxLimit = -1;
             for(String permission : target.getEffectivePermissions().keySet()) {
@@ -28,6 +28,7 @@ import ms.kevi.plotplugin.command.SubCommand;
 import ms.kevi.plotplugin.generator.PlotGenerator;
 import ms.kevi.plotplugin.lang.TranslationKey;
 import ms.kevi.plotplugin.manager.PlotManager;
+import ms.kevi.plotplugin.metrics.MetricTimer;
 import ms.kevi.plotplugin.schematic.Schematic;
 import ms.kevi.plotplugin.schematic.SchematicBlock;
 import ms.kevi.plotplugin.util.ChunkVector;
@@ -114,7 +115,7 @@ public class SetRoadsCommand extends SubCommand {
             }
 
             plotManager.getPlotSchematic().init(schematic);
-            plotManager.getPlotSchematic().save(plotManager.getPlotSchematicFile());
+            this.plugin.getMetrics().time(MetricTimer.SCHEMATIC_SAVE, () -> plotManager.getPlotSchematic().save(plotManager.getPlotSchematicFile()));
             player.sendMessage(this.translate(player, TranslationKey.SETROADS_FINISHED));
         });
 
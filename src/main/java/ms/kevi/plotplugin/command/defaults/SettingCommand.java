@@ -25,8 +25,8 @@ import ms.kevi.plotplugin.command.SubCommand;
 import ms.kevi.plotplugin.lang.TranslationKey;
 import ms.kevi.plotplugin.manager.PlotManager;
 import ms.kevi.plotplugin.util.Plot;
-import ms.kevi.plotplugin.util.PlotConfig;
-import ms.kevi.plotplugin.util.Utils;
+import ms.kevi.plotplugin.util.PlotFlag;
+import ms.kevi.plotplugin.util.PlotFlags;
 
 import java.util.Arrays;
 
@@ -38,7 +38,11 @@ public class SettingCommand extends SubCommand {
 
     public SettingCommand(PlotPlugin plugin, PlotCommand parent) {
         super(plugin, parent, "setting", "config");
-        this.addParameter(CommandParameter.newEnum("name", new CommandEnum("plot setting name", "damage", "pve", "pvp")));
+        // A soft enum, so flags registered by other plugins later on can be entered as well
+        this.addParameter(CommandParameter.newEnum("name", new CommandEnum("plot setting name", PlotFlags.values().stream().
+                filter(flag -> flag.getConfigMessage() != null).
+                map(PlotFlag::getName).
+                toList(), true)));
     }
 
     @Override
@@ -58,37 +62,27 @@ public class SettingCommand extends SubCommand {
             return false;
         }
 
-        switch(configName.toLowerCase()) {
-            case "damage" -> {
-                final boolean damageValue = args.length > 0 && Utils.parseBoolean(args[0]);
-                PlotConfig.ConfigEnum.DAMAGE.getConfig().set(plot, damageValue);
-                plotManager.savePlots();
-                player.sendMessage(this.translate(player, TranslationKey.CONFIG_DAMAGE, this.translate(player, damageValue ? TranslationKey.ACTIVATED : TranslationKey.DEACTIVATED)));
-                return true;
-            }
-            case "pve" -> {
-                final boolean pveValue = args.length > 0 && Utils.parseBoolean(args[0]);
-                PlotConfig.ConfigEnum.PVE.getConfig().set(plot, pveValue);
-                plotManager.savePlots();
-                player.sendMessage(this.translate(player, TranslationKey.CONFIG_PVE, this.translate(player, pveValue ? TranslationKey.ACTIVATED : TranslationKey.DEACTIVATED)));
-                return true;
-            }
-            case "pvp" -> {
-                final boolean pvpValue = args.length > 0 && Utils.parseBoolean(args[0]);
-                PlotConfig.ConfigEnum.PVP.getConfig().set(plot, pvpValue);
-                plotManager.savePlots();
-                player.sendMessage(this.translate(player, TranslationKey.CONFIG_PVP, this.translate(player, pvpValue ? TranslationKey.ACTIVATED : TranslationKey.DEACTIVATED)));
-                return true;
-            }
-            default -> {
-                player.sendMessage(this.translate(player, TranslationKey.CONFIG_HELP_TITLE));
-                player.sendMessage(this.translate(player, TranslationKey.CONFIG_HELP_DAMAGE));
-                player.sendMessage(this.translate(player, TranslationKey.CONFIG_HELP_PVE));
-                player.sendMessage(this.translate(player, TranslationKey.CONFIG_HELP_PVP));
-                player.sendMessage(this.translate(player, TranslationKey.CONFIG_HELP_END));
-                return false;
-            }
+        final PlotFlag<?> flag = configName.isEmpty() ? null : PlotFlags.get(configName);
+        if(flag != null && flag.getConfigMessage() != null && this.setFlag(player, plot, flag, args.length > 0 ? args[0] : "")) {
+            plotManager.savePlots();
+            return true;
         }
+
+        player.sendMessage(this.translate(player, TranslationKey.CONFIG_HELP_TITLE));
+        for(PlotFlag<?> helpFlag : PlotFlags.values())
+            if(helpFlag.getConfigMessage() != null && helpFlag.getHelpMessage() != null)
+                player.sendMessage(helpFlag.getHelpMessage().get(player));
+        player.sendMessage(this.translate(player, TranslationKey.CONFIG_HELP_END));
+        return false;
+    }
+
+    private <T> boolean setFlag(Player player, Plot plot, PlotFlag<T> flag, String input) {
+        final T value = flag.parse(input);
+        if(value == null) return false;
+
+        flag.set(plot, value);
+        player.sendMessage(flag.getConfigMessage().get(player, flag.formatValue(player, value)));
+        return true;
     }
 
 }
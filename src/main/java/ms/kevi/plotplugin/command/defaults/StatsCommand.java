@@ -0,0 +1,103 @@
+/*
+ * Copyright 2022 KCodeYT
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ms.kevi.plotplugin.command.defaults;
+
+import cn.nukkit.Player;
+import cn.nukkit.command.data.CommandEnum;
+import cn.nukkit.command.data.CommandParameter;
+import ms.kevi.plotplugin.PlotPlugin;
+import ms.kevi.plotplugin.command.PlotCommand;
+import ms.kevi.plotplugin.command.SubCommand;
+import ms.kevi.plotplugin.lang.TranslationKey;
+import ms.kevi.plotplugin.metrics.LatencyHistogram;
+import ms.kevi.plotplugin.metrics.ListenerHandler;
+import ms.kevi.plotplugin.metrics.ListenerProfiler;
+import ms.kevi.plotplugin.metrics.MetricCounter;
+import ms.kevi.plotplugin.metrics.MetricTimer;
+import ms.kevi.plotplugin.metrics.PlotMetrics;
+import ms.kevi.plotplugin.util.async.TaskExecutor;
+
+import java.util.Locale;
+
+/**
+ * @author Kevims KCodeYT
+ * @version 1.0
+ */
+public class StatsCommand extends SubCommand {
+
+    public StatsCommand(PlotPlugin plugin, PlotCommand parent) {
+        super(plugin, parent, "stats");
+        this.setPermission("plot.command.admin.stats");
+        this.addParameter(CommandParameter.newEnum("action", true, new CommandEnum("plot stats action", "reset", "profile")));
+    }
+
+    @Override
+    public boolean execute(Player player, String[] args) {
+        final PlotMetrics metrics = this.plugin.getMetrics();
+
+        if(args.length > 0 && args[0].equalsIgnoreCase("reset")) {
+            metrics.reset();
+            player.sendMessage(this.translate(player, TranslationKey.STATS_RESET));
+            return true;
+        }
+
+        final ListenerProfiler profiler = metrics.getListenerProfiler();
+        if(args.length > 0 && args[0].equalsIgnoreCase("profile")) {
+            profiler.setEnabled(!profiler.isEnabled());
+            player.sendMessage(this.translate(player, profiler.isEnabled() ? TranslationKey.STATS_PROFILING_ENABLED : TranslationKey.STATS_PROFILING_DISABLED));
+            return true;
+        }
+
+        player.sendMessage(this.translate(player, TranslationKey.STATS_TITLE));
+        for(MetricCounter counter : MetricCounter.values())
+            player.sendMessage(this.translate(player, TranslationKey.STATS_COUNTER, counter.getName(), metrics.get(counter)));
+
+        player.sendMessage(this.translate(player, TranslationKey.STATS_QUEUE, metrics.getQueuedJobs(), metrics.getQueuedOperations()));
+
+        for(MetricTimer timer : MetricTimer.values()) {
+            final LatencyHistogram histogram = metrics.get(timer);
+            if(histogram.getCount() == 0) continue;
+
+            player.sendMessage(this.translate(player, TranslationKey.STATS_TIMER, timer.getName(), histogram.getCount(),
+                    this.format(histogram.getAverageMillis()), this.format(histogram.getPercentileMillis(0.95)), this.format(histogram.getMaxMillis())
+            ));
+        }
+
+        for(ListenerHandler handler : ListenerHandler.values()) {
+            final long invocations = profiler.getInvocations(handler);
+            if(invocations == 0) continue;
+
+            player.sendMessage(this.translate(player, TranslationKey.STATS_LISTENER, handler.getName(), invocations,
+                    this.format(profiler.getCancelRate(handler) * 100), this.format(profiler.getAverageNanos(handler) / 1000)
+            ));
+        }
+
+        if(profiler.getPlotManagerLookups() > 0)
+            player.sendMessage(this.translate(player, TranslationKey.STATS_LOOKUPS, profiler.getPlotManagerLookups(), profiler.getPlotManagerLookupMisses()));
+
+        player.sendMessage(this.translate(player, TranslationKey.STATS_DUMPED, this.plugin.getMetricsFile().getName()));
+        player.sendMessage(this.translate(player, TranslationKey.STATS_END));
+
+        TaskExecutor.executeAsync(this.plugin::dumpMetrics);
+        return true;
+    }
+
+    private String format(double millis) {
+        return String.format(Locale.ROOT, "%.2f", millis);
+    }
+
+}
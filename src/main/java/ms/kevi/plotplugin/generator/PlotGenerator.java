@@ -30,11 +30,14 @@ import cn.nukkit.math.NukkitRandom;
 import cn.nukkit.math.Vector3;
 import ms.kevi.plotplugin.PlotPlugin;
 import ms.kevi.plotplugin.manager.PlotManager;
-import ms.kevi.plotplugin.schematic.Schematic;
+import ms.kevi.plotplugin.metrics.MetricCounter;
+import ms.kevi.plotplugin.metrics.MetricTimer;
+import ms.kevi.plotplugin.schematic.SchematicBlockEntity;
 import ms.kevi.plotplugin.util.Allowed;
 import ms.kevi.plotplugin.util.LevelUtils;
 import ms.kevi.plotplugin.util.PlotLevelSettings;
 import ms.kevi.plotplugin.util.ShapeType;
+import ms.kevi.plotplugin.util.async.ChunkWriter;
 import ms.kevi.plotplugin.util.async.TaskExecutor;
 
 import java.util.*;
@@ -51,11 +54,13 @@ public class PlotGenerator extends Generator {
 
     private static final Allowed<ShapeType> GENERATE_ALLOWED = new Allowed<>(ShapeType.values());
     private static final Allowed<ShapeType> REGENERATE_ALLOWED = new Allowed<>(ShapeType.WALL, ShapeType.ROAD);
+    private static final Allowed<ShapeType> RESET_ALLOWED = new Allowed<>(ShapeType.PLOT);
+    private static final ThreadLocal<ShapeType[]> SHAPES = ThreadLocal.withInitial(() -> new ShapeType[256]);
 
     private final PlotPlugin plugin;
 
-    private Level level;
-    private ChunkManager chunkManager;
+    private volatile ChunkManager chunkManager;
+    private volatile PlotManager plotManager;
 
     @SuppressWarnings("unused")
     public PlotGenerator() {
@@ -68,17 +73,15 @@ public class PlotGenerator extends Generator {
 
     @Override
     public DimensionData getDimensionData() {
-        final PlotManager plotManager;
-        if(this.level != null && (plotManager = this.plugin.getPlotManager(this.level)) != null)
-            return DimensionEnum.getDataFromId(plotManager.getLevelSettings().getDimension());
+        final PlotManager plotManager = this.plotManager;
+        if(plotManager != null) return DimensionEnum.getDataFromId(plotManager.getLevelSettings().getDimension());
         return DimensionEnum.OVERWORLD.getDimensionData();
     }
 
     @Override
     public int getDimension() {
-        final PlotManager plotManager;
-        if(this.level != null && (plotManager = this.plugin.getPlotManager(this.level)) != null)
-            return plotManager.getLevelSettings().getDimension();
+        final PlotManager plotManager = this.plotManager;
+        if(plotManager != null) return plotManager.getLevelSettings().getDimension();
         return Level.DIMENSION_OVERWORLD;
     }
 
@@ -89,7 +92,7 @@ public class PlotGenerator extends Generator {
 
     @Override
     public void init(ChunkManager chunkManager, NukkitRandom nukkitRandom) {
-        if(chunkManager instanceof Level) this.level = (Level) chunkManager;
+        if(chunkManager instanceof final Level level) this.plotManager = this.plugin.getPlotManager(level);
         this.chunkManager = chunkManager;
     }
 
@@ -98,60 +101,55 @@ public class PlotGenerator extends Generator {
         final FullChunk fullChunk = this.chunkManager.getChunk(chunkX, chunkZ);
         fullChunk.setGenerated();
 
-        if(fullChunk.getProvider() == null || fullChunk.getProvider().getLevel() == null) return;
-
-        this.level = fullChunk.getProvider().getLevel();
-        final PlotManager plotManager = this.plugin.getPlotManager(this.level);
-        if(plotManager == null) return;
-
-        final ShapeType[] shapes = plotManager.getShapes(fullChunk.getX() << 4, fullChunk.getZ() << 4);
-
-        this.preGenerateChunk(plotManager, fullChunk, shapes, GENERATE_ALLOWED, true, null, null, null, null);
-        final Schematic schematic = plotManager.getPlotSchematic().getSchematic();
-        if(schematic != null)
-            this.placeChunkSchematic(plotManager, schematic, fullChunk, shapes, GENERATE_ALLOWED, null, null, null, null);
-    }
-
-    public void regenerateChunk(PlotManager plotManager, FullChunk fullChunk) {
-        final ShapeType[] shapes = plotManager.getShapes(fullChunk.getX() << 4, fullChunk.getZ() << 4);
-
-        final List<Entity> toClose0 = new ArrayList<>();
-        final List<BlockEntity> toClose1 = new ArrayList<>();
-
-        for(Entity entity : new ArrayList<>(fullChunk.getEntities().values())) {
-            if(entity instanceof Player) continue;
-
-            if(REGENERATE_ALLOWED.isDisallowed(shapes[((entity.getFloorZ() & 15) << 4) | (entity.getFloorX() & 15)]))
-                continue;
-
-            toClose0.add(entity);
+        PlotManager plotManager = this.plotManager;
+        if(plotManager == null) {
+            if(fullChunk.getProvider() == null || fullChunk.getProvider().getLevel() == null) return;
+            if((plotManager = this.plugin.getPlotManager(fullChunk.getProvider().getLevel())) == null) return;
         }
 
-        for(BlockEntity blockEntity : new ArrayList<>(fullChunk.getBlockEntities().values())) {
-            if(REGENERATE_ALLOWED.isDisallowed(shapes[((blockEntity.getFloorZ() & 15) << 4) | (blockEntity.getFloorX() & 15)]))
-                continue;
-
-            toClose1.add(blockEntity);
-        }
+        this.generateChunk(plotManager, fullChunk);
+    }
 
-        TaskExecutor.execute(() -> {
-            for(Entity entity : toClose0) entity.close();
-            for(BlockEntity blockEntity : toClose1) blockEntity.close();
-        });
+    public void generateChunk(PlotManager plotManager, FullChunk fullChunk) {
+        final long startTime = System.nanoTime();
+        final PlotGeneratorContext context = plotManager.getGeneratorContext();
+        final ShapeType[] shapes = context.getShapes(fullChunk.getX() << 4, fullChunk.getZ() << 4, SHAPES.get());
 
-        this.preGenerateChunk(plotManager, fullChunk, shapes, REGENERATE_ALLOWED, false, null, null, null, null);
+        this.generateColumns(context, fullChunk, shapes, GENERATE_ALLOWED, true, true, Integer.MIN_VALUE, Integer.MIN_VALUE, Integer.MAX_VALUE, Integer.MAX_VALUE);
 
-        final Schematic schematic = plotManager.getPlotSchematic().getSchematic();
-        if(schematic != null)
-            this.placeChunkSchematic(plotManager, schematic, fullChunk, shapes, REGENERATE_ALLOWED, null, null, null, null);
+        this.plugin.getMetrics().increment(MetricCounter.CHUNKS_GENERATED);
+        this.plugin.getMetrics().record(MetricTimer.CHUNK_GENERATION, startTime);
+    }
 
-        final Level level = fullChunk.getProvider().getLevel();
-        level.getChunkPlayers(fullChunk.getX(), fullChunk.getZ()).values().forEach(player -> level.requestChunk(fullChunk.getX(), fullChunk.getZ(), player));
+    /**
+     * Regenerates the roads and walls from minX;minZ to maxX;maxZ.
+     *
+     * @return the amount of block states and biomes which were changed
+     */
+    public long regenerateChunkWithin(PlotManager plotManager, FullChunk fullChunk, int minX, int minZ, int maxX, int maxZ) {
+        this.plugin.getMetrics().increment(MetricCounter.CHUNKS_REGENERATED);
+        final PlotGeneratorContext context = plotManager.getGeneratorContext();
+        final ShapeType[] shapes = context.getShapes(fullChunk.getX() << 4, fullChunk.getZ() << 4, SHAPES.get());
+
+        this.closeEntitiesWithin(fullChunk, shapes, REGENERATE_ALLOWED, minX, minZ, maxX, maxZ);
+        return this.generateColumns(context, fullChunk, shapes, REGENERATE_ALLOWED, false, true, minX, minZ, maxX, maxZ);
     }
 
-    public void regenerateChunkWithin(PlotManager plotManager, FullChunk fullChunk, int minX, int minZ, int maxX, int maxZ) {
-        final ShapeType[] shapes = plotManager.getShapes(fullChunk.getX() << 4, fullChunk.getZ() << 4);
+    /**
+     * Resets the plot ground from minX;minZ to maxX;maxZ to the generated state, walls and roads are left untouched.
+     *
+     * @return the amount of block states and biomes which were changed
+     */
+    public long resetPlotWithin(PlotManager plotManager, FullChunk fullChunk, int minX, int minZ, int maxX, int maxZ) {
+        this.plugin.getMetrics().increment(MetricCounter.CHUNKS_REGENERATED);
+        final PlotGeneratorContext context = plotManager.getGeneratorContext();
+        final ShapeType[] shapes = context.getShapes(fullChunk.getX() << 4, fullChunk.getZ() << 4, SHAPES.get());
+
+        this.closeEntitiesWithin(fullChunk, shapes, RESET_ALLOWED, minX, minZ, maxX, maxZ);
+        return this.generateColumns(context, fullChunk, shapes, RESET_ALLOWED, false, false, minX, minZ, maxX, maxZ);
+    }
 
+    private void closeEntitiesWithin(FullChunk fullChunk, ShapeType[] shapes, Allowed<ShapeType> allowedShapes, int minX, int minZ, int maxX, int maxZ) {
         final List<Entity> toClose0 = new ArrayList<>();
         final List<BlockEntity> toClose1 = new ArrayList<>();
 
@@ -160,7 +158,7 @@ public class PlotGenerator extends Generator {
             if(entity.getFloorX() < minX || entity.getFloorX() > maxX || entity.getFloorZ() < minZ || entity.getFloorZ() > maxZ)
                 continue;
 
-            if(REGENERATE_ALLOWED.isDisallowed(shapes[((entity.getFloorZ() & 15) << 4) | (entity.getFloorX() & 15)]))
+            if(allowedShapes.isDisallowed(shapes[((entity.getFloorZ() & 15) << 4) | (entity.getFloorX() & 15)]))
                 continue;
 
             toClose0.add(entity);
@@ -169,117 +167,93 @@ public class PlotGenerator extends Generator {
         for(BlockEntity blockEntity : new ArrayList<>(fullChunk.getBlockEntities().values())) {
             if(blockEntity.getFloorX() < minX || blockEntity.getFloorX() > maxX || blockEntity.getFloorZ() < minZ || blockEntity.getFloorZ() > maxZ)
                 continue;
-            if(REGENERATE_ALLOWED.isDisallowed(shapes[((blockEntity.getFloorZ() & 15) << 4) | (blockEntity.getFloorX() & 15)]))
+            if(allowedShapes.isDisallowed(shapes[((blockEntity.getFloorZ() & 15) << 4) | (blockEntity.getFloorX() & 15)]))
                 continue;
 
             toClose1.add(blockEntity);
         }
 
+        if(toClose0.isEmpty() && toClose1.isEmpty()) return;
+
         TaskExecutor.execute(() -> {
             for(Entity entity : toClose0) entity.close();
             for(BlockEntity blockEntity : toClose1) blockEntity.close();
         });
-
-        this.preGenerateChunk(plotManager, fullChunk, shapes, REGENERATE_ALLOWED, false, minX, minZ, maxX, maxZ);
-
-        final Schematic schematic = plotManager.getPlotSchematic().getSchematic();
-        if(schematic != null)
-            this.placeChunkSchematic(plotManager, schematic, fullChunk, shapes, REGENERATE_ALLOWED, minX, minZ, maxX, maxZ);
     }
 
-    private void preGenerateChunk(PlotManager plotManager, FullChunk fullChunk, ShapeType[] shapes,
-                                  Allowed<ShapeType> allowedShapes, boolean ignoreAir, Integer minX, Integer minZ, Integer maxX, Integer maxZ) {
-        final PlotLevelSettings levelSettings = plotManager.getLevelSettings();
-
-        final BlockState firstLayerState = levelSettings.getFirstLayerState();
-        final BlockState middleLayerState = levelSettings.getMiddleLayerState();
-        final BlockState wallFillingState = levelSettings.getWallFillingState();
-        final BlockState roadFillingState = levelSettings.getRoadFillingState();
-        final BlockState lastLayerState = levelSettings.getLastLayerState();
-        final BlockState wallPlotState = levelSettings.getWallPlotState();
-        final BlockState roadState = levelSettings.getRoadState();
-
-        final int dimension = plotManager.getLevelSettings().getDimension();
-        final int chunkMinY = LevelUtils.getChunkMinY(dimension);
-        final int chunkMaxY = LevelUtils.getChunkMaxY(dimension);
-
-        for(int xBlock = 0; xBlock < 16; ++xBlock) {
-            if(minX != null && (xBlock + (fullChunk.getX() << 4) < minX || xBlock + (fullChunk.getX() << 4) > maxX))
-                continue;
-            for(int zBlock = 0; zBlock < 16; ++zBlock) {
-                if(minZ != null && (zBlock + (fullChunk.getZ() << 4) < minZ || zBlock + (fullChunk.getZ() << 4) > maxZ))
-                    continue;
+    /**
+     * Writes the generated columns of the allowed shapes from minX;minZ to maxX;maxZ into the chunk.
+     *
+     * @param ignoreAir     whether the chunk is known to be empty, so air does not need to be written
+     * @param withSchematic whether the road schematic is placed in the columns
+     * @return the amount of block states and biomes which were changed
+     */
+    private long generateColumns(PlotGeneratorContext context, FullChunk fullChunk, ShapeType[] shapes, Allowed<ShapeType> allowedShapes,
+                                 boolean ignoreAir, boolean withSchematic, int minX, int minZ, int maxX, int maxZ) {
+        final int chunkMinY = context.getChunkMinY();
+        final int height = context.getHeight();
+        final int fullX = fullChunk.getX() << 4;
+        final int fullZ = fullChunk.getZ() << 4;
 
+        long changed = 0;
+        for(int xBlock = Math.max(minX, fullX) - fullX, toX = Math.min(maxX, fullX + 15) - fullX; xBlock <= toX; xBlock++) {
+            for(int zBlock = Math.max(minZ, fullZ) - fullZ, toZ = Math.min(maxZ, fullZ + 15) - fullZ; zBlock <= toZ; zBlock++) {
                 final ShapeType shapeType = shapes[(zBlock << 4) | xBlock];
                 if(allowedShapes.isDisallowed(shapeType)) continue;
 
-                if(shapeType == ShapeType.PLOT) fullChunk.setBiomeId(xBlock, zBlock, levelSettings.getPlotBiome());
-                else fullChunk.setBiomeId(xBlock, zBlock, levelSettings.getRoadBiome());
-
-                if(!ignoreAir) for(int yBlock = chunkMinY; yBlock <= chunkMaxY; ++yBlock)
-                    fullChunk.setBlockStateAtLayer(xBlock, yBlock, zBlock, 1, BlockState.AIR);
-
-                fullChunk.setBlockState(xBlock, chunkMinY, zBlock, firstLayerState);
-
-                final BlockState currentState;
-                if(shapeType == ShapeType.PLOT) currentState = middleLayerState;
-                else if(shapeType == ShapeType.WALL) currentState = wallFillingState;
-                else currentState = roadFillingState;
-
-                for(int yBlock = 1; yBlock < levelSettings.getGroundHeight(); ++yBlock)
-                    fullChunk.setBlockState(xBlock, yBlock + chunkMinY, zBlock, currentState);
-
-                if(shapeType == ShapeType.PLOT) {
-                    fullChunk.setBlockState(xBlock, levelSettings.getGroundHeight() + chunkMinY, zBlock, lastLayerState);
-                    if(!ignoreAir) for(int yBlock = levelSettings.getGroundHeight() + 1; yBlock <= chunkMaxY; ++yBlock)
-                        fullChunk.setBlockState(xBlock, yBlock, zBlock, BlockState.AIR);
-                } else {
-                    if(shapeType == ShapeType.WALL) {
-                        fullChunk.setBlockState(xBlock, levelSettings.getGroundHeight() + 1 + chunkMinY, zBlock, wallPlotState);
-                        fullChunk.setBlockState(xBlock, levelSettings.getGroundHeight() + chunkMinY, zBlock, wallFillingState);
-                        if(!ignoreAir)
-                            for(int yBlock = levelSettings.getGroundHeight() + 2; yBlock <= chunkMaxY; ++yBlock)
-                                fullChunk.setBlockState(xBlock, yBlock, zBlock, BlockState.AIR);
-                    } else {
-                        fullChunk.setBlockState(xBlock, levelSettings.getGroundHeight() + chunkMinY, zBlock, roadState);
-                        if(!ignoreAir)
-                            for(int yBlock = levelSettings.getGroundHeight() + 1; yBlock <= chunkMaxY; ++yBlock)
-                                fullChunk.setBlockState(xBlock, yBlock, zBlock, BlockState.AIR);
+                changed += ChunkWriter.setBiomeId(fullChunk, xBlock, zBlock, shapeType == ShapeType.PLOT ? context.getPlotBiome() : context.getRoadBiome());
+
+                final PlotGeneratorContext.SchematicColumn schematicColumn = withSchematic ? context.getSchematicColumn(fullX + xBlock, fullZ + zBlock) : null;
+                final BlockState[][] column = context.getColumn(shapeType, schematicColumn);
+                for(int layer = 0; layer < column.length; layer++) {
+                    final BlockState[] states = column[layer];
+                    for(int y = 0, maxY = ignoreAir ? states.length : height; y < maxY; y++) {
+                        final BlockState blockState = y < states.length ? states[y] : BlockState.AIR;
+                        if(ignoreAir && BlockState.AIR.equals(blockState)) continue;
+
+                        changed += ChunkWriter.setBlockState(fullChunk, xBlock, chunkMinY + y, zBlock, layer, blockState);
                     }
                 }
+
+                if(schematicColumn != null)
+                    changed += this.placeBlockEntities(fullChunk, schematicColumn, fullX + xBlock, chunkMinY, fullZ + zBlock);
+            }
+        }
+
+        return changed;
+    }
+
+    private int placeBlockEntities(FullChunk fullChunk, PlotGeneratorContext.SchematicColumn schematicColumn, int x, int chunkMinY, int z) {
+        final SchematicBlockEntity[] blockEntities = schematicColumn.getBlockEntities();
+        int changed = 0;
+        for(int i = 0; i < blockEntities.length; i++) {
+            final SchematicBlockEntity blockEntity = blockEntities[i];
+            final int y = chunkMinY + schematicColumn.getBlockEntityYs()[i];
+
+            try {
+                BlockEntity.createBlockEntity(blockEntity.getType(), fullChunk, blockEntity.getCompoundTag().copy().
+                        putString("id", blockEntity.getType()).
+                        putInt("x", x).
+                        putInt("y", y).
+                        putInt("z", z)
+                );
+                changed++;
+            } catch(Exception e) {
+                this.plugin.getLogger().error("Could not create block entity " + blockEntity.getType() + " in Chunk[" + fullChunk.getX() + ", " + fullChunk.getZ() + "] at " + x + ":" + y + ":" + z + "!", e);
             }
         }
+
+        return changed;
     }
 
     public boolean isDefaultBlockStateAt(PlotManager plotManager, ShapeType[] shapes, Vector3 blockVector, BlockState blockState) {
-        final PlotLevelSettings levelSettings = plotManager.getLevelSettings();
-        final int xBlock = blockVector.getFloorX() & 15;
+        final PlotGeneratorContext context = plotManager.getGeneratorContext();
         final int yBlock = blockVector.getFloorY();
-        final int zBlock = blockVector.getFloorZ() & 15;
-        final ShapeType shapeType = shapes[(zBlock << 4) | xBlock];
-
-        final int dimension = plotManager.getLevelSettings().getDimension();
-        final int chunkMinY = LevelUtils.getChunkMinY(dimension);
-
-        if(yBlock == chunkMinY)
-            return levelSettings.getFirstLayerState().equals(blockState);
-        else if(yBlock < levelSettings.getGroundHeight() + chunkMinY)
-            return switch(shapeType) {
-                case PLOT -> levelSettings.getMiddleLayerState().equals(blockState);
-                case WALL -> levelSettings.getWallFillingState().equals(blockState);
-                case ROAD -> levelSettings.getRoadFillingState().equals(blockState);
-            };
-        else if(yBlock == levelSettings.getGroundHeight() + chunkMinY)
-            return switch(shapeType) {
-                case PLOT -> levelSettings.getLastLayerState().equals(blockState);
-                case WALL -> levelSettings.getWallFillingState().equals(blockState);
-                case ROAD -> levelSettings.getRoadState().equals(blockState);
-            };
-        else if(yBlock == levelSettings.getGroundHeight() + 1 + chunkMinY)
-            if(shapeType == ShapeType.WALL)
-                return levelSettings.getWallPlotState().equals(blockState) || levelSettings.getClaimPlotState().equals(blockState);
-
-        return BlockState.AIR.equals(blockState);
+        final ShapeType shapeType = shapes[((blockVector.getFloorZ() & 15) << 4) | (blockVector.getFloorX() & 15)];
+
+        if(shapeType == ShapeType.WALL && yBlock == context.getGroundY() + 1 && context.getClaimPlotState().equals(blockState))
+            return true;
+        return context.getDefaultBlockState(shapeType, yBlock).equals(blockState);
     }
 
     @Override
@@ -288,26 +262,6 @@ public class PlotGenerator extends Generator {
         fullChunk.setPopulated();
     }
 
-    private void placeChunkSchematic(PlotManager plotManager, Schematic schematic, FullChunk fullChunk,
-                                     ShapeType[] shapes, Allowed<ShapeType> allowedShapes, Integer minX, Integer minZ, Integer maxX, Integer maxZ) {
-        final Set<Vector3> handledVectors = new HashSet<>();
-        final int fullX = fullChunk.getX() << 4;
-        final int fullZ = fullChunk.getZ() << 4;
-
-        for(int blockX = fullX; blockX < fullX + 16; blockX++) {
-            if(minX != null && (blockX < minX || blockX > maxX)) continue;
-            for(int blockZ = fullZ; blockZ < fullZ + 16; blockZ++) {
-                if(minZ != null && (blockZ < minZ || blockZ > maxZ)) continue;
-
-                final Vector3 plotArea = this.getPlotAreaStart(plotManager, blockX, blockZ);
-                if(handledVectors.contains(plotArea)) continue;
-
-                handledVectors.add(plotArea);
-                schematic.buildInChunk(plotArea, fullChunk, shapes, allowedShapes, minX, minZ, maxX, maxZ);
-            }
-        }
-    }
-
     @Override
     public Map<String, Object> getSettings() {
         return new HashMap<>();
@@ -0,0 +1,292 @@
+/*
+ * Copyright 2022 KCodeYT
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ms.kevi.plotplugin.generator;
+
+import cn.nukkit.blockstate.BlockState;
+import cn.nukkit.math.BlockVector3;
+import cn.nukkit.math.Vector3;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.objects.Object2IntMap;
+import lombok.AccessLevel;
+import lombok.Getter;
+import ms.kevi.plotplugin.schematic.Schematic;
+import ms.kevi.plotplugin.schematic.SchematicBlock;
+import ms.kevi.plotplugin.schematic.SchematicBlockEntity;
+import ms.kevi.plotplugin.util.LevelUtils;
+import ms.kevi.plotplugin.util.PlotLevelSettings;
+import ms.kevi.plotplugin.util.ShapeType;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Everything the {@link PlotGenerator} needs to generate the chunks of one plot world, resolved once
+ * from the level settings and the road schematic. A context is never changed after it was created,
+ * so any amount of threads can generate with it at the same time. A new road schematic results in a new context.
+ *
+ * @author Kevims KCodeYT
+ * @version 1.0
+ */
+@Getter
+public class PlotGeneratorContext {
+
+    private static final ShapeType[] SHAPE_TYPES = ShapeType.values();
+    private static final ShapeType[][] SHAPE_COMBINATIONS = new ShapeType[SHAPE_TYPES.length][SHAPE_TYPES.length];
+
+    static {
+        for(ShapeType typeZ : SHAPE_TYPES) {
+            for(ShapeType typeX : SHAPE_TYPES) {
+                final ShapeType type;
+                if(typeX == typeZ) type = typeX;
+                else if(typeX == ShapeType.PLOT) type = typeZ;
+                else if(typeZ == ShapeType.PLOT) type = typeX;
+                else type = ShapeType.ROAD;
+
+                SHAPE_COMBINATIONS[typeZ.ordinal()][typeX.ordinal()] = type;
+            }
+        }
+    }
+
+    private final int plotSize;
+    private final int totalSize;
+    private final int chunkMinY;
+    private final int chunkMaxY;
+    private final int groundY;
+    private final int plotBiome;
+    private final int roadBiome;
+    private final BlockState claimPlotState;
+
+    /**
+     * The shape of every position within a plot area along one axis.
+     */
+    @Getter(AccessLevel.NONE)
+    private final ShapeType[] axisShapes;
+    /**
+     * The generated layer 0 and layer 1 states of a column for every shape type, starting at the chunk min y.
+     * The layers end with the last block which is not air.
+     */
+    @Getter(AccessLevel.NONE)
+    private final BlockState[][][] columns;
+    /**
+     * The road schematic bucketed by the column within a plot area, empty if there is no road schematic.
+     */
+    @Getter(AccessLevel.NONE)
+    private final SchematicColumn[] schematicColumns;
+    @Getter(AccessLevel.NONE)
+    private final ThreadLocal<BlockState[][]> columnBuffer;
+
+    public PlotGeneratorContext(PlotLevelSettings levelSettings, Schematic schematic) {
+        this.plotSize = levelSettings.getPlotSize();
+        this.totalSize = levelSettings.getTotalSize();
+        this.chunkMinY = LevelUtils.getChunkMinY(levelSettings.getDimension());
+        this.chunkMaxY = LevelUtils.getChunkMaxY(levelSettings.getDimension());
+        this.groundY = levelSettings.getGroundHeight() + this.chunkMinY;
+        this.plotBiome = levelSettings.getPlotBiome();
+        this.roadBiome = levelSettings.getRoadBiome();
+        this.claimPlotState = levelSettings.getClaimPlotState();
+
+        this.axisShapes = new ShapeType[this.totalSize];
+        for(int pos = 0; pos < this.totalSize; pos++) {
+            if(pos < this.plotSize) this.axisShapes[pos] = ShapeType.PLOT;
+            else if(pos == this.plotSize || pos == this.totalSize - 1) this.axisShapes[pos] = ShapeType.WALL;
+            else this.axisShapes[pos] = ShapeType.ROAD;
+        }
+
+        this.columns = new BlockState[SHAPE_TYPES.length][][];
+        this.columns[ShapeType.PLOT.ordinal()] = this.createColumn(levelSettings.getFirstLayerState(), levelSettings.getMiddleLayerState(), levelSettings.getLastLayerState());
+        this.columns[ShapeType.WALL.ordinal()] = this.createColumn(levelSettings.getFirstLayerState(), levelSettings.getWallFillingState(), levelSettings.getWallFillingState(), levelSettings.getWallPlotState());
+        this.columns[ShapeType.ROAD.ordinal()] = this.createColumn(levelSettings.getFirstLayerState(), levelSettings.getRoadFillingState(), levelSettings.getRoadState());
+
+        this.schematicColumns = schematic == null || schematic.isEmpty() ? new SchematicColumn[0] : this.bucketSchematic(schematic);
+        this.columnBuffer = ThreadLocal.withInitial(() -> new BlockState[2][this.getHeight()]);
+    }
+
+    /**
+     * Creates a column with the first layer state at the chunk min y, the filling state up to the ground
+     * and the top states from the ground height on.
+     */
+    private BlockState[][] createColumn(BlockState firstLayerState, BlockState fillingState, BlockState... topStates) {
+        final BlockState[] layer0 = new BlockState[this.groundY - this.chunkMinY + topStates.length];
+        Arrays.fill(layer0, fillingState);
+        layer0[0] = firstLayerState;
+        System.arraycopy(topStates, 0, layer0, this.groundY - this.chunkMinY, topStates.length);
+        return new BlockState[][]{layer0, new BlockState[0]};
+    }
+
+    private SchematicColumn[] bucketSchematic(Schematic schematic) {
+        final int height = this.getHeight();
+        final ColumnBuilder[] builders = new ColumnBuilder[this.totalSize * this.totalSize];
+
+        // Blocks outside the plot area are added first, so the blocks and block entities of the area itself win where both overlap
+        for(int pass = 0; pass < 2; pass++) {
+            for(Object2IntMap.Entry<Vector3> entry : schematic.getBlocks().object2IntEntrySet()) {
+                final Vector3 blockVector = entry.getKey();
+                final int y = blockVector.getFloorY();
+                if(this.isWithinArea(blockVector.getFloorX(), blockVector.getFloorZ()) != (pass == 1) || y < 0 || y >= height)
+                    continue;
+
+                final ColumnBuilder builder = this.getColumnBuilder(builders, blockVector.getFloorX(), blockVector.getFloorZ());
+                builder.blockYs.add(y);
+                builder.blocks.add(schematic.getBlockPalette().get(entry.getIntValue()));
+            }
+
+            for(Map.Entry<BlockVector3, SchematicBlockEntity> entry : schematic.getBlockEntities().entrySet()) {
+                final BlockVector3 blockVector = entry.getKey();
+                if(this.isWithinArea(blockVector.getX(), blockVector.getZ()) != (pass == 1)) continue;
+
+                final ColumnBuilder builder = this.getColumnBuilder(builders, blockVector.getX(), blockVector.getZ());
+                final int index = builder.blockEntityYs.indexOf(blockVector.getY());
+                if(index != -1) {
+                    builder.blockEntities.set(index, entry.getValue());
+                    continue;
+                }
+
+                builder.blockEntityYs.add(blockVector.getY());
+                builder.blockEntities.add(entry.getValue());
+            }
+        }
+
+        final SchematicColumn[] schematicColumns = new SchematicColumn[builders.length];
+        for(int i = 0; i < builders.length; i++) {
+            final ColumnBuilder builder = builders[i];
+            if(builder == null) continue;
+
+            schematicColumns[i] = new SchematicColumn(
+                    builder.blockYs.toIntArray(),
+                    builder.blocks.toArray(new SchematicBlock[0]),
+                    builder.blockEntityYs.toIntArray(),
+                    builder.blockEntities.toArray(new SchematicBlockEntity[0])
+            );
+        }
+
+        return schematicColumns;
+    }
+
+    private boolean isWithinArea(int x, int z) {
+        return x >= 0 && x < this.totalSize && z >= 0 && z < this.totalSize;
+    }
+
+    private ColumnBuilder getColumnBuilder(ColumnBuilder[] builders, int x, int z) {
+        final int index = Math.floorMod(x, this.totalSize) * this.totalSize + Math.floorMod(z, this.totalSize);
+        ColumnBuilder builder = builders[index];
+        if(builder == null) builders[index] = builder = new ColumnBuilder();
+        return builder;
+    }
+
+    public int getHeight() {
+        return this.chunkMaxY - this.chunkMinY + 1;
+    }
+
+    public ShapeType[] getShapes(int x, int z) {
+        return this.getShapes(x, z, new ShapeType[256]);
+    }
+
+    /**
+     * Fills the shapes of the 16x16 blocks starting at x;z into the given array.
+     *
+     * @return the given array
+     */
+    public ShapeType[] getShapes(int x, int z, ShapeType[] shapes) {
+        final int startX = Math.floorMod(x, this.totalSize);
+        int posZ = Math.floorMod(z, this.totalSize);
+
+        for(int zBlock = 0; zBlock < 16; zBlock++, posZ++) {
+            if(posZ == this.totalSize) posZ = 0;
+
+            final ShapeType[] combinations = SHAPE_COMBINATIONS[this.axisShapes[posZ].ordinal()];
+            int posX = startX;
+            for(int xBlock = 0; xBlock < 16; xBlock++, posX++) {
+                if(posX == this.totalSize) posX = 0;
+                shapes[(zBlock << 4) | xBlock] = combinations[this.axisShapes[posX].ordinal()];
+            }
+        }
+
+        return shapes;
+    }
+
+    /**
+     * @return the generated layer 0 state of the shape type at the given y-coordinate, without the road schematic
+     */
+    public BlockState getDefaultBlockState(ShapeType shapeType, int y) {
+        final BlockState[] layer0 = this.columns[shapeType.ordinal()][0];
+        final int index = y - this.chunkMinY;
+        return index >= 0 && index < layer0.length ? layer0[index] : BlockState.AIR;
+    }
+
+    /**
+     * @return the road schematic column at the given world position or null if the schematic has no blocks there
+     */
+    public SchematicColumn getSchematicColumn(int x, int z) {
+        if(this.schematicColumns.length == 0) return null;
+        return this.schematicColumns[Math.floorMod(x, this.totalSize) * this.totalSize + Math.floorMod(z, this.totalSize)];
+    }
+
+    /**
+     * Returns the layer 0 and layer 1 states of a generated column starting at the chunk min y, layers
+     * shorter than the height are air above. A column with schematic blocks is built into a buffer
+     * of the current thread, which is only valid until the next call.
+     */
+    public BlockState[][] getColumn(ShapeType shapeType, SchematicColumn schematicColumn) {
+        final BlockState[][] template = this.columns[shapeType.ordinal()];
+        if(schematicColumn == null || schematicColumn.blocks.length == 0) return template;
+
+        final BlockState[][] column = this.columnBuffer.get();
+        System.arraycopy(template[0], 0, column[0], 0, template[0].length);
+        Arrays.fill(column[0], template[0].length, column[0].length, BlockState.AIR);
+        Arrays.fill(column[1], BlockState.AIR);
+
+        for(int i = 0; i < schematicColumn.blocks.length; i++) {
+            column[0][schematicColumn.blockYs[i]] = schematicColumn.blocks[i].getLayer0();
+            column[1][schematicColumn.blockYs[i]] = schematicColumn.blocks[i].getLayer1();
+        }
+
+        return column;
+    }
+
+    /**
+     * The blocks and block entities of the road schematic in one column of the plot area,
+     * the y-coordinates are relative to the chunk min y.
+     */
+    @Getter
+    public static class SchematicColumn {
+
+        private final int[] blockYs;
+        private final SchematicBlock[] blocks;
+        private final int[] blockEntityYs;
+        private final SchematicBlockEntity[] blockEntities;
+
+        private SchematicColumn(int[] blockYs, SchematicBlock[] blocks, int[] blockEntityYs, SchematicBlockEntity[] blockEntities) {
+            this.blockYs = blockYs;
+            this.blocks = blocks;
+            this.blockEntityYs = blockEntityYs;
+            this.blockEntities = blockEntities;
+        }
+
+    }
+
+    private static class ColumnBuilder {
+
+        private final IntArrayList blockYs = new IntArrayList();
+        private final List<SchematicBlock> blocks = new ArrayList<>();
+        private final IntArrayList blockEntityYs = new IntArrayList();
+        private final List<SchematicBlockEntity> blockEntities = new ArrayList<>();
+
+    }
+
+}
@@ -18,7 +18,6 @@ package ms.kevi.plotplugin.lang;
 
 import cn.nukkit.Player;
 import cn.nukkit.utils.Config;
-import cn.nukkit.utils.TextFormat;
 import lombok.Getter;
 import lombok.Value;
 
@@ -37,11 +36,13 @@ public class Language {
 
     private final Locale defaultLang;
     private final Map<Locale, LangEntry> languages;
+    private final Map<Player, LangEntry> playerLanguages;
 
     public Language(File directory, String defaultLang) throws IOException {
         this.directory = directory;
         this.defaultLang = Locale.forLanguageTag(defaultLang.replace('_', '-'));
         this.languages = new LinkedHashMap<>();
+        this.playerLanguages = Collections.synchronizedMap(new WeakHashMap<>());
 
         final File[] files = directory.listFiles();
         if(files == null || files.length == 0) throw new IOException("Could not find any language file!");
@@ -72,16 +73,12 @@ public class Language {
         return this.translate(player, key, new Object[0]);
     }
 
-    public String translate(Player player, TranslationKey key, Object... params) {
-        final LangEntry langEntry = this.languages.getOrDefault(this.getLocaleByPlayer(player), this.languages.get(this.defaultLang));
-
-        String message = langEntry.getTranslations().get(key).
-                replace("&", "" + TextFormat.ESCAPE).
-                replace("\\n", "\n");
-        for(int i = 0; i < params.length; i++)
-            message = message.replace("{" + i + "}", Objects.toString(params[i]));
+    private LangEntry getLangEntry(Player player) {
+        return this.playerLanguages.computeIfAbsent(player, p -> this.languages.getOrDefault(this.getLocaleByPlayer(p), this.languages.get(this.defaultLang)));
+    }
 
-        return message;
+    public String translate(Player player, TranslationKey key, Object... params) {
+        return this.getLangEntry(player).getTemplates().get(key).render(params);
     }
 
     public void reload() throws IOException {
@@ -94,6 +91,7 @@ public class Language {
         Locale locale;
         Config config;
         Map<TranslationKey, String> translations = new EnumMap<>(TranslationKey.class);
+        Map<TranslationKey, MessageTemplate> templates = new EnumMap<>(TranslationKey.class);
 
         protected void reload() throws IOException {
             if(!this.translations.isEmpty()) this.config.reload();
@@ -104,6 +102,7 @@ public class Language {
                     throw new IOException("Could not find translation for '" + key + "' in language '" + this.locale + "'!");
 
                 this.translations.put(key, translation);
+                this.templates.put(key, MessageTemplate.compile(translation));
             }
         }
     }
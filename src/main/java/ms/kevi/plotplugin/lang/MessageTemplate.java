@@ -0,0 +1,91 @@
+/*
+ * Copyright 2022 KCodeYT
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ms.kevi.plotplugin.lang;
+
+import cn.nukkit.utils.TextFormat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * A translation split into literal and placeholder segments once at load time.
+ *
+ * @author Kevims KCodeYT
+ * @version 1.0
+ */
+class MessageTemplate {
+
+    private static final ThreadLocal<StringBuilder> BUILDER = ThreadLocal.withInitial(StringBuilder::new);
+
+    private final String[] literals;
+    private final int[] placeholders;
+    private final String plainMessage;
+
+    private MessageTemplate(String[] literals, int[] placeholders, String plainMessage) {
+        this.literals = literals;
+        this.placeholders = placeholders;
+        this.plainMessage = plainMessage;
+    }
+
+    static MessageTemplate compile(String translation) {
+        final String message = translation.
+                replace("&", "" + TextFormat.ESCAPE).
+                replace("\\n", "\n");
+
+        final List<String> literals = new ArrayList<>();
+        final List<Integer> placeholders = new ArrayList<>();
+
+        int literalStart = 0;
+        int index = 0;
+        while((index = message.indexOf('{', index)) != -1) {
+            int end = index + 1;
+            while(end < message.length() && Character.isDigit(message.charAt(end))) end++;
+
+            if(end == index + 1 || end - index > 10 || end >= message.length() || message.charAt(end) != '}') {
+                index++;
+                continue;
+            }
+
+            literals.add(message.substring(literalStart, index));
+            placeholders.add(Integer.parseInt(message.substring(index + 1, end)));
+            literalStart = index = end + 1;
+        }
+
+        literals.add(message.substring(literalStart));
+        return new MessageTemplate(literals.toArray(new String[0]), placeholders.stream().mapToInt(Integer::intValue).toArray(), message);
+    }
+
+    String render(Object[] params) {
+        if(this.placeholders.length == 0) return this.plainMessage;
+
+        final StringBuilder builder = BUILDER.get();
+        builder.setLength(0);
+
+        for(int i = 0; i < this.placeholders.length; i++) {
+            builder.append(this.literals[i]);
+
+            final int placeholder = this.placeholders[i];
+            if(placeholder < params.length) builder.append(Objects.toString(params[placeholder]));
+            else builder.append('{').append(placeholder).append('}');
+        }
+
+        builder.append(this.literals[this.literals.length - 1]);
+        return builder.toString();
+    }
+
+}
@@ -94,6 +94,7 @@ public enum TranslationKey {
     HELP_SETOWNER,
     HELP_SETROADS,
     HELP_SETTING,
+    HELP_STATS,
     HELP_TELEPORT,
     HELP_TITLE,
     HELP_UNDENY,
@@ -156,6 +157,17 @@ public enum TranslationKey {
     SETROADS_NO_ROAD_FOUND,
     SETROADS_ROAD_REMOVED,
     SETROADS_STARTING,
+    STATS_COUNTER,
+    STATS_DUMPED,
+    STATS_END,
+    STATS_LISTENER,
+    STATS_LOOKUPS,
+    STATS_PROFILING_DISABLED,
+    STATS_PROFILING_ENABLED,
+    STATS_QUEUE,
+    STATS_RESET,
+    STATS_TIMER,
+    STATS_TITLE,
     TELEPORT_FORM_TITLE,
     TELEPORT_NO_PLOT_WORLD,
     TELEPORT_SUCCESS,
@@ -0,0 +1,225 @@
+/*
+ * Copyright 2022 KCodeYT
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ms.kevi.plotplugin.listener;
+
+import cn.nukkit.Player;
+import cn.nukkit.block.Block;
+import cn.nukkit.entity.Entity;
+import cn.nukkit.event.EventHandler;
+import cn.nukkit.event.EventPriority;
+import cn.nukkit.event.Listener;
+import cn.nukkit.event.block.*;
+import cn.nukkit.event.entity.EntityBlockChangeEvent;
+import cn.nukkit.event.entity.EntityExplodeEvent;
+import cn.nukkit.event.level.ChunkLoadEvent;
+import cn.nukkit.event.level.ChunkUnloadEvent;
+import cn.nukkit.event.level.LevelSaveEvent;
+import cn.nukkit.event.level.StructureGrowEvent;
+import cn.nukkit.event.player.PlayerBucketEmptyEvent;
+import cn.nukkit.event.player.PlayerBucketFillEvent;
+import cn.nukkit.event.player.PlayerInteractEvent;
+import cn.nukkit.item.Item;
+import cn.nukkit.level.Level;
+import cn.nukkit.level.Position;
+import cn.nukkit.level.format.FullChunk;
+import lombok.RequiredArgsConstructor;
+import ms.kevi.plotplugin.PlotPlugin;
+import ms.kevi.plotplugin.manager.PlotManager;
+import ms.kevi.plotplugin.metrics.MetricCounter;
+import ms.kevi.plotplugin.util.async.PristineChunks;
+
+/**
+ * Tracks which parts of a plot world still equal the generator output. Every block change the server reports
+ * marks the plot chunk it happened in as modified, so clears only have to reset modified chunks.
+ * If skip_pristine_chunks is enabled in the config, chunks generated in a plot world are also kept from
+ * being saved until a block in them changes.
+ *
+ * @author Kevims KCodeYT
+ * @version 1.0
+ */
+@RequiredArgsConstructor
+public class BlockChangeListener implements Listener {
+
+    private final PlotPlugin plugin;
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onChunkLoad(ChunkLoadEvent event) {
+        if(!event.isNewChunk() || !this.plugin.isSkipPristineChunks()) return;
+
+        final PlotManager plotManager = this.plugin.getPlotManager(event.getLevel());
+        if(plotManager != null)
+            plotManager.getPristineChunks().markPristine(event.getChunk().getX(), event.getChunk().getZ());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onChunkUnload(ChunkUnloadEvent event) {
+        final PlotManager plotManager = this.plugin.getPlotManager(event.getLevel());
+        if(plotManager == null) return;
+
+        final FullChunk fullChunk = event.getChunk();
+        if(plotManager.getPristineChunks().remove(fullChunk.getX(), fullChunk.getZ()) && this.skipSave(fullChunk))
+            this.plugin.getMetrics().increment(MetricCounter.CHUNKS_SAVE_SKIPPED);
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onLevelSave(LevelSaveEvent event) {
+        final Level level = event.getLevel();
+        final PlotManager plotManager = this.plugin.getPlotManager(level);
+        if(plotManager == null) return;
+
+        for(long chunkKey : plotManager.getPristineChunks().toArray()) {
+            final int chunkX = Level.getHashX(chunkKey);
+            final int chunkZ = Level.getHashZ(chunkKey);
+            if(level.isChunkLoaded(chunkX, chunkZ) && this.skipSave(level.getChunk(chunkX, chunkZ)))
+                this.plugin.getMetrics().increment(MetricCounter.CHUNKS_SAVE_SKIPPED);
+        }
+    }
+
+    /**
+     * Clears the changed flag of the chunk so the server does not write it, the server saves
+     * chunks containing entities or block entities anyway, these are never skipped.
+     */
+    private boolean skipSave(FullChunk fullChunk) {
+        if(!fullChunk.hasChanged() || !fullChunk.getBlockEntities().isEmpty()) return false;
+        for(Entity entity : fullChunk.getEntities().values())
+            if(!(entity instanceof Player)) return false;
+
+        fullChunk.setChanged(false);
+        return true;
+    }
+
+    private void markModified(Position position) {
+        if(position == null || position.getLevel() == null) return;
+
+        final PlotManager plotManager = this.plugin.getPlotManager(position.getLevel());
+        if(plotManager == null) return;
+
+        final PristineChunks pristineChunks = plotManager.getPristineChunks();
+        if(pristineChunks.size() != 0) pristineChunks.markModified(position.getChunkX(), position.getChunkZ());
+
+        plotManager.markModified(position.getFloorX(), position.getFloorZ());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onPlace(BlockPlaceEvent event) {
+        this.markModified(event.getBlock());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onBreak(BlockBreakEvent event) {
+        this.markModified(event.getBlock());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onInteract(PlayerInteractEvent event) {
+        final Block block = event.getBlock();
+        if(block == null) return;
+
+        // only interactions which may change a block, clicking with an empty hand on the ground changes nothing
+        final Item item = event.getItem();
+        if(event.getAction() == PlayerInteractEvent.Action.PHYSICAL || block.canBeActivated() ||
+                (event.getAction() == PlayerInteractEvent.Action.RIGHT_CLICK_BLOCK && item != null && !item.isNull()))
+            this.markModified(block);
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onBucketEmpty(PlayerBucketEmptyEvent event) {
+        this.markModified(event.getBlockClicked());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onBucketFill(PlayerBucketFillEvent event) {
+        this.markModified(event.getBlockClicked());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onFlow(LiquidFlowEvent event) {
+        this.markModified(event.getTo());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onPiston(BlockPistonEvent event) {
+        this.markModified(event.getBlock());
+        for(Block block : event.getBlocks()) {
+            this.markModified(block);
+            this.markModified(block.getSide(event.getDirection()));
+        }
+
+        for(Block block : event.getDestroyedBlocks()) this.markModified(block);
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onStructureGrow(StructureGrowEvent event) {
+        for(Block block : event.getBlockList()) this.markModified(block);
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onExplode(EntityExplodeEvent event) {
+        for(Block block : event.getBlockList()) this.markModified(block);
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onEntityBlockChange(EntityBlockChangeEvent event) {
+        this.markModified(event.getFrom());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onSignChange(SignChangeEvent event) {
+        this.markModified(event.getBlock());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onIgnite(BlockIgniteEvent event) {
+        this.markModified(event.getBlock());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onBurn(BlockBurnEvent event) {
+        this.markModified(event.getBlock());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onGrow(BlockGrowEvent event) {
+        this.markModified(event.getBlock());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onForm(BlockFormEvent event) {
+        this.markModified(event.getBlock());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onSpread(BlockSpreadEvent event) {
+        this.markModified(event.getBlock());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onFade(BlockFadeEvent event) {
+        this.markModified(event.getBlock());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onLeavesDecay(LeavesDecayEvent event) {
+        this.markModified(event.getBlock());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onUpdate(BlockUpdateEvent event) {
+        this.markModified(event.getBlock());
+    }
+
+}
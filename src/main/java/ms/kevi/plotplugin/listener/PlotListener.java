@@ -26,19 +26,24 @@ import cn.nukkit.event.block.*;
 import cn.nukkit.event.entity.EntityDamageByEntityEvent;
 import cn.nukkit.event.entity.EntityDamageEvent;
 import cn.nukkit.event.entity.EntityExplodeEvent;
+import cn.nukkit.event.level.ChunkLoadEvent;
+import cn.nukkit.event.level.ChunkUnloadEvent;
 import cn.nukkit.event.level.StructureGrowEvent;
 import cn.nukkit.event.player.*;
 import cn.nukkit.item.Item;
-import lombok.RequiredArgsConstructor;
+import cn.nukkit.level.Level;
 import ms.kevi.plotplugin.PlotPlugin;
 import ms.kevi.plotplugin.event.PlotEnterEvent;
 import ms.kevi.plotplugin.event.PlotLeaveEvent;
 import ms.kevi.plotplugin.lang.TranslationKey;
+import ms.kevi.plotplugin.manager.AccessAction;
+import ms.kevi.plotplugin.manager.AccessCache;
 import ms.kevi.plotplugin.manager.PlotManager;
+import ms.kevi.plotplugin.metrics.ListenerHandler;
+import ms.kevi.plotplugin.metrics.ListenerProfiler;
 import ms.kevi.plotplugin.util.Plot;
-import ms.kevi.plotplugin.util.PlotConfig;
+import ms.kevi.plotplugin.util.PlotFlags;
 import ms.kevi.plotplugin.util.ShapeType;
-import ms.kevi.plotplugin.util.Utils;
 
 import java.util.ArrayList;
 
@@ -46,28 +51,67 @@ import java.util.ArrayList;
  * @author Kevims KCodeYT
  * @version 1.0
  */
-@RequiredArgsConstructor
 public class PlotListener implements Listener {
 
     private final PlotPlugin plugin;
+    private final ListenerProfiler profiler;
+    private final AccessCache accessCache;
+
+    public PlotListener(PlotPlugin plugin) {
+        this.plugin = plugin;
+        this.profiler = plugin.getMetrics().getListenerProfiler();
+        this.accessCache = plugin.getAccessCache();
+    }
+
+    /**
+     * Looks up the plot manager of the level, the lookups are only counted while the profiler is enabled.
+     */
+    private PlotManager getPlotManager(Level level) {
+        final PlotManager plotManager = this.plugin.getPlotManager(level);
+        if(this.profiler.isEnabled()) this.profiler.recordLookup(plotManager != null);
+        return plotManager;
+    }
 
     @EventHandler
     public void onJoin(PlayerJoinEvent event) {
         this.plugin.registerPlayer(event.getPlayer());
     }
 
+    @EventHandler
+    public void onQuit(PlayerQuitEvent event) {
+        this.accessCache.invalidate(event.getPlayer());
+    }
+
+    @EventHandler
+    public void onChunkLoad(ChunkLoadEvent event) {
+        final PlotManager plotManager = this.getPlotManager(event.getLevel());
+        if(plotManager != null) plotManager.applyPendingResets(event.getChunk(), event.isNewChunk());
+    }
+
+    @EventHandler
+    public void onChunkUnload(ChunkUnloadEvent event) {
+        final PlotManager plotManager = this.getPlotManager(event.getLevel());
+        if(plotManager != null && plotManager.isChunkPinned(event.getChunk().getX(), event.getChunk().getZ()))
+            event.setCancelled(true);
+    }
+
     @EventHandler
     public void onPlace(BlockPlaceEvent event) {
+        if(this.profiler.isEnabled()) this.profiler.profile(ListenerHandler.PLACE, event, this::handlePlace);
+        else this.handlePlace(event);
+    }
+
+    private void handlePlace(BlockPlaceEvent event) {
         final Player player = event.getPlayer();
-        final PlotManager plotManager = this.plugin.getPlotManager(player.getLevel());
+        final PlotManager plotManager = this.getPlotManager(player.getLevel());
 
-        if(plotManager != null && !player.hasPermission("plot.admin.place")) {
+        if(plotManager != null && !this.accessCache.canBypass(player, plotManager, AccessAction.PLACE)) {
             final int x = event.getBlock().getFloorX();
             final int z = event.getBlock().getFloorZ();
             final Plot plot = plotManager.getMergedPlot(x, z);
 
             if(plot != null) {
-                if(!plot.isOwner(player.getUniqueId()) && !plot.isHelper(player.getUniqueId()) && !plot.isHelper(Utils.UUID_EVERYONE))
+                if(!this.accessCache.isAllowed(player, plotManager, plot, AccessAction.PLACE))
                     event.setCancelled(true);
 
                 if(plot.getHomePosition() != null && plot.getHomePosition().distance(event.getBlock()) < 5) {
@@ -82,16 +126,21 @@ public class PlotListener implements Listener {
 
     @EventHandler
     public void onBreak(BlockBreakEvent event) {
+        if(this.profiler.isEnabled()) this.profiler.profile(ListenerHandler.BREAK, event, this::handleBreak);
+        else this.handleBreak(event);
+    }
+
+    private void handleBreak(BlockBreakEvent event) {
         final Player player = event.getPlayer();
-        final PlotManager plotManager = this.plugin.getPlotManager(player.getLevel());
+        final PlotManager plotManager = this.getPlotManager(player.getLevel());
 
-        if(plotManager != null && !player.hasPermission("plot.admin.break")) {
+        if(plotManager != null && !this.accessCache.canBypass(player, plotManager, AccessAction.BREAK)) {
             final int x = event.getBlock().getFloorX();
             final int z = event.getBlock().getFloorZ();
             final Plot plot = plotManager.getMergedPlot(x, z);
 
             if(plot != null) {
-                if(!plot.isOwner(player.getUniqueId()) && !plot.isHelper(player.getUniqueId()) && !plot.isHelper(Utils.UUID_EVERYONE))
+                if(!this.accessCache.isAllowed(player, plotManager, plot, AccessAction.BREAK))
                     event.setCancelled(true);
 
                 if(plot.getHomePosition() != null && plot.getHomePosition().distance(event.getBlock()) < 5) {
@@ -107,15 +156,15 @@ public class PlotListener implements Listener {
     @EventHandler
     public void onBucketEmpty(PlayerBucketEmptyEvent event) {
         final Player player = event.getPlayer();
-        final PlotManager plotManager = this.plugin.getPlotManager(player.getLevel());
+        final PlotManager plotManager = this.getPlotManager(player.getLevel());
 
-        if(plotManager != null && !player.hasPermission("plot.admin.bucket.emtpy")) {
+        if(plotManager != null && !this.accessCache.canBypass(player, plotManager, AccessAction.BUCKET_EMPTY)) {
             final int x = event.getBlockClicked().getFloorX();
             final int z = event.getBlockClicked().getFloorZ();
             final Plot plot = plotManager.getMergedPlot(x, z);
 
             if(plot != null) {
-                if(!plot.isOwner(player.getUniqueId()) && !plot.isHelper(player.getUniqueId()) && !plot.isHelper(Utils.UUID_EVERYONE))
+                if(!this.accessCache.isAllowed(player, plotManager, plot, AccessAction.BUCKET_EMPTY))
                     event.setCancelled(true);
 
                 if(plot.getHomePosition() != null && plot.getHomePosition().distance(event.getBlockClicked()) < 5) {
@@ -131,15 +180,15 @@ public class PlotListener implements Listener {
     @EventHandler
     public void onBucketFill(PlayerBucketFillEvent event) {
         final Player player = event.getPlayer();
-        final PlotManager plotManager = this.plugin.getPlotManager(player.getLevel());
+        final PlotManager plotManager = this.getPlotManager(player.getLevel());
 
-        if(plotManager != null && !player.hasPermission("plot.admin.bucket.fill")) {
+        if(plotManager != null && !this.accessCache.canBypass(player, plotManager, AccessAction.BUCKET_FILL)) {
             final int x = event.getBlockClicked().getFloorX();
             final int z = event.getBlockClicked().getFloorZ();
             final Plot plot = plotManager.getMergedPlot(x, z);
 
             if(plot != null) {
-                if(!plot.isOwner(player.getUniqueId()) && !plot.isHelper(player.getUniqueId()) && !plot.isHelper(Utils.UUID_EVERYONE))
+                if(!this.accessCache.isAllowed(player, plotManager, plot, AccessAction.BUCKET_FILL))
                     event.setCancelled(true);
 
                 if(plot.getHomePosition() != null && plot.getHomePosition().distance(event.getBlockClicked()) < 5) {
@@ -155,9 +204,9 @@ public class PlotListener implements Listener {
     @EventHandler
     public void onInteract(PlayerInteractEvent event) {
         final Player player = event.getPlayer();
-        final PlotManager plotManager = this.plugin.getPlotManager(player.getLevel());
+        final PlotManager plotManager = this.getPlotManager(player.getLevel());
 
-        if(plotManager != null && !player.hasPermission("plot.admin.interact")) {
+        if(plotManager != null && !this.accessCache.canBypass(player, plotManager, AccessAction.INTERACT)) {
             final Block block = event.getBlock();
             final Item item = event.getItem();
 
@@ -165,7 +214,7 @@ public class PlotListener implements Listener {
                 final Plot plot = plotManager.getMergedPlot(block.getFloorX(), block.getFloorZ());
 
                 if(plot != null) {
-                    if(!plot.isOwner(player.getUniqueId()) && !plot.isHelper(player.getUniqueId()) && !plot.isHelper(Utils.UUID_EVERYONE))
+                    if(!this.accessCache.isAllowed(player, plotManager, plot, AccessAction.INTERACT))
                         event.setCancelled(true);
                 }
 
@@ -178,7 +227,7 @@ public class PlotListener implements Listener {
                 final Plot plot = plotManager.getMergedPlot(x, z);
 
                 if(plot != null) {
-                    if(!plot.isOwner(player.getUniqueId()) && !plot.isHelper(player.getUniqueId()) && !plot.isHelper(Utils.UUID_EVERYONE))
+                    if(!this.accessCache.isAllowed(player, plotManager, plot, AccessAction.INTERACT))
                         event.setCancelled(true);
 
                     if(plot.getHomePosition() != null && plot.getHomePosition().distance(event.getBlock()) < 5) {
@@ -195,14 +244,14 @@ public class PlotListener implements Listener {
     @EventHandler
     public void onInteractWithEntity(PlayerInteractEntityEvent event) {
         final Player player = event.getPlayer();
-        final PlotManager plotManager = this.plugin.getPlotManager(player.getLevel());
+        final PlotManager plotManager = this.getPlotManager(player.getLevel());
 
-        if(plotManager != null && !player.hasPermission("plot.admin.interact")) {
+        if(plotManager != null && !this.accessCache.canBypass(player, plotManager, AccessAction.INTERACT)) {
             final Entity entity = event.getEntity();
             final Plot plot = plotManager.getMergedPlot(entity.getFloorX(), entity.getFloorZ());
 
             if(plot != null) {
-                if(!plot.isOwner(player.getUniqueId()) && !plot.isHelper(player.getUniqueId()) && !plot.isHelper(Utils.UUID_EVERYONE))
+                if(!this.accessCache.isAllowed(player, plotManager, plot, AccessAction.INTERACT))
                     event.setCancelled(true);
             } else {
                 event.setCancelled(true);
@@ -212,15 +261,20 @@ public class PlotListener implements Listener {
 
     @EventHandler
     public void onMove(PlayerMoveEvent event) {
+        if(this.profiler.isEnabled()) this.profiler.profile(ListenerHandler.MOVE, event, this::handleMove);
+        else this.handleMove(event);
+    }
+
+    private void handleMove(PlayerMoveEvent event) {
         final Player player = event.getPlayer();
-        final PlotManager plotManager = this.plugin.getPlotManager(player.getLevel());
+        final PlotManager plotManager = this.getPlotManager(player.getLevel());
 
         if(plotManager != null && event.getFrom() != null) {
             final Plot plotFrom = plotManager.getMergedPlot(event.getFrom().getFloorX(), event.getFrom().getFloorZ());
             final Plot plotTo = plotManager.getMergedPlot(event.getTo().getFloorX(), event.getTo().getFloorZ());
 
             if(plotTo != null) {
-                if((plotTo.isDenied(player.getUniqueId()) || plotTo.isDenied(Utils.UUID_EVERYONE)) && !player.hasPermission("plot.admin.bypass.deny")) {
+                if(!this.accessCache.isAllowed(player, plotManager, plotTo, AccessAction.ENTER) && !this.accessCache.canBypass(player, plotManager, AccessAction.ENTER)) {
                     event.setCancelled(true);
                     return;
                 }
@@ -249,16 +303,20 @@ public class PlotListener implements Listener {
 
     @EventHandler
     public void onDamage(EntityDamageEvent event) {
-        final Entity entity = event.getEntity();
-        final PlotManager plotManager = this.plugin.getPlotManager(entity.getLevel());
+        if(event instanceof EntityDamageByEntityEvent) return;
 
-        if(event instanceof EntityDamageByEntityEvent)
-            return;
+        if(this.profiler.isEnabled()) this.profiler.profile(ListenerHandler.DAMAGE, event, this::handleDamage);
+        else this.handleDamage(event);
+    }
+
+    private void handleDamage(EntityDamageEvent event) {
+        final Entity entity = event.getEntity();
+        final PlotManager plotManager = this.getPlotManager(entity.getLevel());
 
         if(plotManager != null) {
             Plot plot = plotManager.getMergedPlot(entity.getFloorX(), entity.getFloorZ());
             if(plot != null) {
-                if(!((boolean) PlotConfig.ConfigEnum.DAMAGE.getConfig().get(plot)))
+                if(!PlotFlags.DAMAGE.test(plot))
                     event.setCancelled(true);
             } else
                 event.setCancelled(true);
@@ -267,18 +325,23 @@ public class PlotListener implements Listener {
 
     @EventHandler
     public void onDamageByEntity(EntityDamageByEntityEvent event) {
+        if(this.profiler.isEnabled()) this.profiler.profile(ListenerHandler.DAMAGE_BY_ENTITY, event, this::handleDamageByEntity);
+        else this.handleDamageByEntity(event);
+    }
+
+    private void handleDamageByEntity(EntityDamageByEntityEvent event) {
         final Entity entity = event.getEntity();
         Entity damager = event.getDamager();
-        final PlotManager plotManager = this.plugin.getPlotManager(entity.getLevel());
+        final PlotManager plotManager = this.getPlotManager(entity.getLevel());
 
         if(plotManager != null) {
             final Plot plot = plotManager.getMergedPlot(entity.getFloorX(), entity.getFloorZ());
             damager = damager instanceof EntityProjectile && ((EntityProjectile) damager).shootingEntity != null ? ((EntityProjectile) damager).shootingEntity : damager;
 
             if(plot != null) {
-                if(!((damager instanceof Player && (((Player) damager).hasPermission("plot.admin.damage")) || (entity instanceof Player ? ((boolean) PlotConfig.ConfigEnum.PVP.getConfig().get(plot)) : ((boolean) PlotConfig.ConfigEnum.PVE.getConfig().get(plot))) || (!(entity instanceof Player) && damager instanceof Player && plot.isOwner(damager.getUniqueId())))))
+                if(!((damager instanceof Player && this.accessCache.canBypass((Player) damager, plotManager, AccessAction.DAMAGE) || (entity instanceof Player ? PlotFlags.PVP.test(plot) : PlotFlags.PVE.test(plot)) || (!(entity instanceof Player) && damager instanceof Player && plot.isOwner(damager.getUniqueId())))))
                     event.setCancelled(true);
-            } else if(!(damager instanceof Player) || !((Player) damager).hasPermission("plot.admin.damage"))
+            } else if(!(damager instanceof Player) || !this.accessCache.canBypass((Player) damager, plotManager, AccessAction.DAMAGE))
                 event.setCancelled(true);
         }
     }
@@ -290,8 +353,13 @@ public class PlotListener implements Listener {
 
     @EventHandler
     public void onFlow(LiquidFlowEvent event) {
+        if(this.profiler.isEnabled()) this.profiler.profile(ListenerHandler.FLOW, event, this::handleFlow);
+        else this.handleFlow(event);
+    }
+
+    private void handleFlow(LiquidFlowEvent event) {
         final Block blockSource = event.getSource();
-        final PlotManager plotManager = this.plugin.getPlotManager(blockSource.getLevel());
+        final PlotManager plotManager = this.getPlotManager(blockSource.getLevel());
         if(plotManager != null) {
             final Block blockTo = event.getTo();
             final Plot plotFrom = plotManager.getMergedPlot(blockSource.getFloorX(), blockSource.getFloorZ());
@@ -312,7 +380,7 @@ public class PlotListener implements Listener {
         final Block blockSource = event.getSource();
         if(blockSource == null) return;
 
-        final PlotManager plotManager = this.plugin.getPlotManager(blockSource.getLevel());
+        final PlotManager plotManager = this.getPlotManager(blockSource.getLevel());
         if(plotManager != null) {
             final Block block = event.getBlock();
             final Plot plotFrom = plotManager.getMergedPlot(blockSource.getFloorX(), blockSource.getFloorZ());
@@ -331,7 +399,7 @@ public class PlotListener implements Listener {
     @EventHandler
     public void onDecay(LeavesDecayEvent event) {
         final Block block = event.getBlock();
-        final PlotManager plotManager = this.plugin.getPlotManager(block.getLevel());
+        final PlotManager plotManager = this.getPlotManager(block.getLevel());
         if(plotManager == null) return;
 
         final Plot plot = plotManager.getMergedPlot(block.getFloorX(), block.getFloorZ());
@@ -342,8 +410,13 @@ public class PlotListener implements Listener {
 
     @EventHandler
     public void onUpdate(BlockUpdateEvent event) {
+        if(this.profiler.isEnabled()) this.profiler.profile(ListenerHandler.UPDATE, event, this::handleUpdate);
+        else this.handleUpdate(event);
+    }
+
+    private void handleUpdate(BlockUpdateEvent event) {
         final Block block = event.getBlock();
-        final PlotManager plotManager = this.plugin.getPlotManager(block.getLevel());
+        final PlotManager plotManager = this.getPlotManager(block.getLevel());
         if(plotManager == null) return;
 
         final Plot plot = plotManager.getMergedPlot(block.getFloorX(), block.getFloorZ());
@@ -352,8 +425,13 @@ public class PlotListener implements Listener {
 
     @EventHandler
     public void onPiston(BlockPistonEvent event) {
+        if(this.profiler.isEnabled()) this.profiler.profile(ListenerHandler.PISTON, event, this::handlePiston);
+        else this.handlePiston(event);
+    }
+
+    private void handlePiston(BlockPistonEvent event) {
         final Block block = event.getBlock();
-        final PlotManager plotManager = this.plugin.getPlotManager(block.getLevel());
+        final PlotManager plotManager = this.getPlotManager(block.getLevel());
         if(plotManager != null) {
             final Plot blockPlot = plotManager.getMergedPlot(block.getFloorX(), block.getFloorZ());
 
@@ -401,8 +479,13 @@ public class PlotListener implements Listener {
 
     @EventHandler
     public void onGrow(StructureGrowEvent event) {
+        if(this.profiler.isEnabled()) this.profiler.profile(ListenerHandler.GROW, event, this::handleGrow);
+        else this.handleGrow(event);
+    }
+
+    private void handleGrow(StructureGrowEvent event) {
         final Block block = event.getBlock();
-        final PlotManager plotManager = this.plugin.getPlotManager(block.getLevel());
+        final PlotManager plotManager = this.getPlotManager(block.getLevel());
         if(plotManager != null) {
             final Plot blockPlot = plotManager.getMergedPlot(block.getFloorX(), block.getFloorZ());
             for(Block movingBlock : event.getBlockList()) {
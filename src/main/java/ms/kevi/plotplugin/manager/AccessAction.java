@@ -0,0 +1,42 @@
+/*
+ * Copyright 2022 KCodeYT
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ms.kevi.plotplugin.manager;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * The protected actions of the plot listener and the permissions which bypass their checks.
+ *
+ * @author Kevims KCodeYT
+ * @version 1.0
+ */
+@Getter
+@RequiredArgsConstructor
+public enum AccessAction {
+
+    PLACE("plot.admin.place"),
+    BREAK("plot.admin.break"),
+    BUCKET_EMPTY("plot.admin.bucket.emtpy"),
+    BUCKET_FILL("plot.admin.bucket.fill"),
+    INTERACT("plot.admin.interact"),
+    ENTER("plot.admin.bypass.deny"),
+    DAMAGE("plot.admin.damage");
+
+    private final String bypassPermission;
+
+}
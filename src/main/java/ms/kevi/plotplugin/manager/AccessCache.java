@@ -0,0 +1,114 @@
+/*
+ * Copyright 2022 KCodeYT
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ms.kevi.plotplugin.manager;
+
+import cn.nukkit.Player;
+import it.unimi.dsi.fastutil.longs.Long2BooleanMap;
+import it.unimi.dsi.fastutil.longs.Long2BooleanOpenHashMap;
+import ms.kevi.plotplugin.util.Plot;
+import ms.kevi.plotplugin.util.PlotId;
+import ms.kevi.plotplugin.util.Utils;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Caches the access decisions of the plot listener per player, keyed by the merged plot group and the action.
+ * The decisions of a player are dropped when a plot changes its owner, helpers, denied players or merges,
+ * when the player changes the plot world and after a few seconds, as there is no event
+ * for recalculated permissions. Permission plugins can call {@link #invalidate(Player)} directly.
+ *
+ * @author Kevims KCodeYT
+ * @version 1.0
+ */
+public class AccessCache {
+
+    private static final long ENTRY_TTL_NANOS = TimeUnit.SECONDS.toNanos(5);
+    private static final AccessAction[] ACTIONS = AccessAction.values();
+
+    private final Map<UUID, PlayerAccess> players = new ConcurrentHashMap<>();
+    private final AtomicLong version = new AtomicLong();
+
+    public boolean canBypass(Player player, PlotManager plotManager, AccessAction action) {
+        final PlayerAccess access = this.getAccess(player, plotManager);
+        final int index = action.ordinal();
+        if(access.bypass[index] == 0)
+            access.bypass[index] = (byte) (player.hasPermission(action.getBypassPermission()) ? 1 : 2);
+        return access.bypass[index] == 1;
+    }
+
+    public boolean isAllowed(Player player, PlotManager plotManager, Plot plot, AccessAction action) {
+        final PlayerAccess access = this.getAccess(player, plotManager);
+        final int index = action.ordinal();
+        if(access.allowed[index] == null) access.allowed[index] = new Long2BooleanOpenHashMap();
+
+        final PlotId groupId = plot.getBasePlot().getId();
+        final long key = ((long) groupId.getX() << 32) | (groupId.getZ() & 0xFFFFFFFFL);
+        final Long2BooleanMap allowed = access.allowed[index];
+        if(allowed.containsKey(key)) return allowed.get(key);
+
+        final UUID playerId = player.getUniqueId();
+        final boolean result = action == AccessAction.ENTER ?
+                !plot.isDenied(playerId) && !plot.isDenied(Utils.UUID_EVERYONE) :
+                plot.isOwner(playerId) || plot.isHelper(playerId) || plot.isHelper(Utils.UUID_EVERYONE);
+        allowed.put(key, result);
+        return result;
+    }
+
+    public void invalidate(Player player) {
+        this.players.remove(player.getUniqueId());
+    }
+
+    public void invalidateAll() {
+        this.version.incrementAndGet();
+    }
+
+    private PlayerAccess getAccess(Player player, PlotManager plotManager) {
+        final long version = this.version.get();
+        final long time = System.nanoTime();
+
+        PlayerAccess access = this.players.get(player.getUniqueId());
+        if(access == null || access.plotManager != plotManager || access.version != version || time - access.expiresAt > 0) {
+            access = new PlayerAccess(plotManager, version, time + ENTRY_TTL_NANOS);
+            this.players.put(player.getUniqueId(), access);
+        }
+
+        return access;
+    }
+
+    private static class PlayerAccess {
+
+        private final PlotManager plotManager;
+        private final long version;
+        private final long expiresAt;
+        private final byte[] bypass;
+        private final Long2BooleanMap[] allowed;
+
+        private PlayerAccess(PlotManager plotManager, long version, long expiresAt) {
+            this.plotManager = plotManager;
+            this.version = version;
+            this.expiresAt = expiresAt;
+            this.bypass = new byte[ACTIONS.length];
+            this.allowed = new Long2BooleanMap[ACTIONS.length];
+        }
+
+    }
+
+}
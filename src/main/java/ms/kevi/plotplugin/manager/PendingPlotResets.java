@@ -0,0 +1,98 @@
+/*
+ * Copyright 2022 KCodeYT
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ms.kevi.plotplugin.manager;
+
+import cn.nukkit.level.Level;
+import cn.nukkit.utils.Config;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import ms.kevi.plotplugin.util.PlotId;
+import ms.kevi.plotplugin.util.async.TaskExecutor;
+
+import java.io.File;
+import java.util.*;
+
+/**
+ * The plot resets of a world which were deferred because the chunks were not loaded,
+ * stored per chunk and applied once the chunk gets loaded the next time.
+ *
+ * @author Kevims KCodeYT
+ * @version 1.0
+ */
+public class PendingPlotResets {
+
+    private final Config config;
+    private final Long2ObjectMap<Set<PlotId>> chunks;
+    private boolean savePending;
+
+    public PendingPlotResets(File file) {
+        this.config = new Config(file, Config.YAML);
+        this.chunks = new Long2ObjectOpenHashMap<>();
+
+        for(Map<String, Object> chunkMap : this.config.<List<Map<String, Object>>>get("chunks", new ArrayList<>())) {
+            final int chunkX = ((Number) chunkMap.get("x")).intValue();
+            final int chunkZ = ((Number) chunkMap.get("z")).intValue();
+            for(Object plotObject : (List<?>) chunkMap.getOrDefault("plots", new ArrayList<>())) {
+                final List<?> plotList = (List<?>) plotObject;
+                this.add(PlotId.of(((Number) plotList.get(0)).intValue(), ((Number) plotList.get(1)).intValue()), chunkX, chunkZ);
+            }
+        }
+    }
+
+    public synchronized void add(PlotId plotId, int chunkX, int chunkZ) {
+        this.chunks.computeIfAbsent(Level.chunkHash(chunkX, chunkZ), key -> new HashSet<>()).add(plotId);
+    }
+
+    /**
+     * Removes and returns the pending plot resets of the chunk.
+     */
+    public synchronized Set<PlotId> remove(int chunkX, int chunkZ) {
+        final Set<PlotId> plotIds = this.chunks.remove(Level.chunkHash(chunkX, chunkZ));
+        return plotIds == null ? Collections.emptySet() : plotIds;
+    }
+
+    public synchronized int size() {
+        return this.chunks.size();
+    }
+
+    /**
+     * Saves the file asynchronously, saves requested until then are coalesced into that one.
+     */
+    public synchronized void saveAsync() {
+        if(this.savePending) return;
+
+        this.savePending = true;
+        TaskExecutor.executeAsync(this::save);
+    }
+
+    public synchronized void save() {
+        this.savePending = false;
+
+        final List<Map<String, Object>> chunkList = new ArrayList<>();
+        for(Long2ObjectMap.Entry<Set<PlotId>> entry : this.chunks.long2ObjectEntrySet()) {
+            final Map<String, Object> chunkMap = new LinkedHashMap<>();
+            chunkMap.put("x", Level.getHashX(entry.getLongKey()));
+            chunkMap.put("z", Level.getHashZ(entry.getLongKey()));
+            chunkMap.put("plots", entry.getValue().stream().map(plotId -> Arrays.asList(plotId.getX(), plotId.getZ())).toList());
+            chunkList.add(chunkMap);
+        }
+
+        this.config.set("chunks", chunkList);
+        this.config.save();
+    }
+
+}
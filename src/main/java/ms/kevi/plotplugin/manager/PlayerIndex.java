@@ -0,0 +1,127 @@
+/*
+ * Copyright 2022 KCodeYT
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ms.kevi.plotplugin.manager;
+
+import java.util.*;
+
+/**
+ * In-memory lookup of all known players by name and by unique id.
+ * Names are matched case-insensitive, a prefix trie is used for name completion.
+ *
+ * @author Kevims KCodeYT
+ * @version 1.0
+ */
+public class PlayerIndex {
+
+    private final Map<String, String> namesByLowerName;
+    private final Map<String, UUID> idsByLowerName;
+    private final Map<UUID, String> namesById;
+    private final TrieNode root;
+
+    public PlayerIndex() {
+        this.namesByLowerName = new HashMap<>();
+        this.idsByLowerName = new HashMap<>();
+        this.namesById = new HashMap<>();
+        this.root = new TrieNode();
+    }
+
+    public synchronized boolean put(String name, UUID uniqueId) {
+        final String lowerName = name.toLowerCase(Locale.ROOT);
+        final String oldName = this.namesByLowerName.put(lowerName, name);
+        final UUID oldId = this.idsByLowerName.put(lowerName, uniqueId);
+        this.namesById.put(uniqueId, name);
+
+        // the name now belongs to another player, the previous owner of the name must not keep it
+        if(oldId != null && !oldId.equals(uniqueId)) this.namesById.remove(oldId, oldName);
+
+        if(oldName == null) {
+            TrieNode node = this.root;
+            for(int i = 0; i < lowerName.length(); i++)
+                node = node.children.computeIfAbsent(lowerName.charAt(i), c -> new TrieNode());
+            node.name = name;
+        } else if(!oldName.equals(name)) {
+            this.findNode(lowerName).name = name;
+        }
+
+        return !name.equals(oldName) || !uniqueId.equals(oldId);
+    }
+
+    public synchronized UUID getUniqueId(String name) {
+        return this.idsByLowerName.get(name.toLowerCase(Locale.ROOT));
+    }
+
+    public synchronized String getName(UUID uniqueId) {
+        return this.namesById.get(uniqueId);
+    }
+
+    public synchronized String getExactName(String name) {
+        return this.namesByLowerName.get(name.toLowerCase(Locale.ROOT));
+    }
+
+    public synchronized String findName(String name) {
+        final String exactName = this.namesByLowerName.get(name.toLowerCase(Locale.ROOT));
+        if(exactName != null) return exactName;
+
+        final List<String> names = this.complete(name, 1);
+        return names.isEmpty() ? null : names.get(0);
+    }
+
+    public synchronized List<String> complete(String prefix, int limit) {
+        final List<String> names = new ArrayList<>();
+        final TrieNode node = this.findNode(prefix.toLowerCase(Locale.ROOT));
+        if(node != null) this.collect(node, names, limit);
+        return names;
+    }
+
+    public synchronized List<String> getNames() {
+        return new ArrayList<>(this.namesByLowerName.values());
+    }
+
+    public synchronized Map<String, UUID> getEntries() {
+        final Map<String, UUID> entries = new LinkedHashMap<>();
+        for(Map.Entry<String, String> entry : this.namesByLowerName.entrySet())
+            entries.put(entry.getValue(), this.idsByLowerName.get(entry.getKey()));
+        return entries;
+    }
+
+    public synchronized int size() {
+        return this.namesByLowerName.size();
+    }
+
+    private TrieNode findNode(String lowerPrefix) {
+        TrieNode node = this.root;
+        for(int i = 0; i < lowerPrefix.length() && node != null; i++)
+            node = node.children.get(lowerPrefix.charAt(i));
+        return node;
+    }
+
+    private void collect(TrieNode node, List<String> names, int limit) {
+        if(names.size() >= limit) return;
+        if(node.name != null) names.add(node.name);
+
+        for(TrieNode child : node.children.values()) {
+            if(names.size() >= limit) return;
+            this.collect(child, names, limit);
+        }
+    }
+
+    private static class TrieNode {
+        private final Map<Character, TrieNode> children = new TreeMap<>();
+        private String name;
+    }
+
+}
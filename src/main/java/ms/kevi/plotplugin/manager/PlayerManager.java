@@ -16,37 +16,117 @@
 
 package ms.kevi.plotplugin.manager;
 
-import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.List;
+import lombok.Value;
+import ms.kevi.plotplugin.metrics.MetricCounter;
+import ms.kevi.plotplugin.metrics.MetricTimer;
+import ms.kevi.plotplugin.metrics.PlotMetrics;
+
 import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
 
 /**
+ * Resolves and caches the display names of players.
+ * Names are resolved lazily on first use by a small bounded worker pool,
+ * concurrent requests for the same name are coalesced into one resolution.
+ *
  * @author Kevims KCodeYT
  * @version 1.0
  */
 public class PlayerManager {
 
-    private final Map<String, String> nameMap;
-    private final List<String> names;
+    private static final int WORKER_THREADS = 2;
+    private static final int MAX_QUEUED_RESOLUTIONS = 1024;
+    private static final long CACHE_TTL_NANOS = TimeUnit.MINUTES.toNanos(10);
+    private static final long PENDING_TIMEOUT_NANOS = TimeUnit.SECONDS.toNanos(30);
 
-    public PlayerManager(List<String> names) {
-        this.nameMap = new HashMap<>();
-        this.names = new ArrayList<>(names);
-    }
+    private final Supplier<PlayerNameFunction> nameFunction;
+    private final Map<String, CacheEntry> nameMap;
+    private final Map<String, Long> pendingResolutions;
+    private final ThreadPoolExecutor executor;
+    private final PlotMetrics metrics;
 
-    public void load(PlayerNameFunction nameFunction) {
-        for(String name : this.names)
-            nameFunction.execute(name, correctName -> this.add(name, correctName));
+    public PlayerManager(Supplier<PlayerNameFunction> nameFunction, PlotMetrics metrics) {
+        this.nameFunction = nameFunction;
+        this.metrics = metrics;
+        this.nameMap = new ConcurrentHashMap<>();
+        this.pendingResolutions = new ConcurrentHashMap<>();
+
+        final AtomicInteger threadId = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(WORKER_THREADS, WORKER_THREADS, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(MAX_QUEUED_RESOLUTIONS), runnable -> {
+            final Thread thread = new Thread(runnable, "PlotPlugin Name Resolver #" + threadId.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
     }
 
     public String get(String name) {
-        return name == null ? "N/A" : this.nameMap.getOrDefault(name, name);
+        if(name == null) return "N/A";
+
+        final CacheEntry entry = this.nameMap.get(name);
+        if(entry == null) {
+            this.metrics.increment(MetricCounter.PLAYER_NAME_MISSES);
+            this.resolve(name);
+            return name;
+        }
+
+        this.metrics.increment(MetricCounter.PLAYER_NAME_HITS);
+        if(entry.isExpired()) this.resolve(name);
+        return entry.displayName;
     }
 
     public void add(String name, String displayName) {
-        synchronized(this.nameMap) {
-            this.nameMap.put(name, displayName);
+        this.nameMap.put(name, new CacheEntry(displayName, System.nanoTime() + CACHE_TTL_NANOS));
+    }
+
+    public void refresh(String name) {
+        this.resolve(name);
+    }
+
+    public void shutdown() {
+        this.executor.shutdownNow();
+    }
+
+    private void resolve(String name) {
+        final long startTime = System.nanoTime();
+        final Long pendingSince = this.pendingResolutions.putIfAbsent(name, startTime);
+        if(pendingSince != null && (startTime - pendingSince < PENDING_TIMEOUT_NANOS || !this.pendingResolutions.replace(name, pendingSince, startTime)))
+            return;
+
+        try {
+            this.executor.execute(() -> {
+                try {
+                    this.nameFunction.get().execute(name, displayName -> {
+                        this.add(name, displayName);
+                        this.finishResolve(name);
+                    });
+                } catch(RuntimeException e) {
+                    this.finishResolve(name);
+                    throw e;
+                }
+            });
+        } catch(RejectedExecutionException e) {
+            this.pendingResolutions.remove(name);
+            this.metrics.increment(MetricCounter.PLAYER_NAME_RESOLUTIONS_REJECTED);
+        }
+    }
+
+    private void finishResolve(String name) {
+        final Long startTime = this.pendingResolutions.remove(name);
+        if(startTime == null) return;
+
+        this.metrics.record(MetricTimer.PLAYER_NAME_RESOLVE, startTime);
+    }
+
+    @Value
+    private static class CacheEntry {
+        String displayName;
+        long expiresAt;
+
+        private boolean isExpired() {
+            return System.nanoTime() - this.expiresAt > 0;
         }
     }
 
@@ -0,0 +1,121 @@
+/*
+ * Copyright 2022 KCodeYT
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ms.kevi.plotplugin.manager;
+
+import cn.nukkit.utils.Config;
+import ms.kevi.plotplugin.PlotPlugin;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Append only storage of all known players.
+ * Every line contains the unique id of a player followed by a space and
+ * the name of the player, later lines override earlier ones.
+ * New entries are queued and appended in batches by {@link #flush()}.
+ *
+ * @author Kevims KCodeYT
+ * @version 1.0
+ */
+public class PlayerStorage {
+
+    private final PlotPlugin plugin;
+    private final File file;
+    private final Queue<String> pendingLines;
+    private final Object writeLock;
+
+    public PlayerStorage(PlotPlugin plugin, File file) {
+        this.plugin = plugin;
+        this.file = file;
+        this.pendingLines = new ConcurrentLinkedQueue<>();
+        this.writeLock = new Object();
+    }
+
+    public void load(PlayerIndex playerIndex, File legacyFile) throws IOException {
+        synchronized(this.writeLock) {
+            int lines = 0;
+            boolean rewrite = false;
+
+            if(this.file.exists()) {
+                try(final BufferedReader reader = Files.newBufferedReader(this.file.toPath(), StandardCharsets.UTF_8)) {
+                    String line;
+                    while((line = reader.readLine()) != null) {
+                        final int splitIndex = line.indexOf(' ');
+                        if(splitIndex == -1) continue;
+
+                        try {
+                            playerIndex.put(line.substring(splitIndex + 1), UUID.fromString(line.substring(0, splitIndex)));
+                            lines++;
+                        } catch(IllegalArgumentException ignored) {
+                        }
+                    }
+                }
+            } else if(legacyFile.exists()) {
+                final Config legacyConfig = new Config(legacyFile, Config.YAML);
+                for(Map.Entry<String, Object> entry : legacyConfig.getAll().entrySet())
+                    playerIndex.put(entry.getKey(), UUID.fromString((String) entry.getValue()));
+                rewrite = true;
+            }
+
+            if(rewrite || lines > playerIndex.size() * 2) this.rewrite(playerIndex);
+        }
+    }
+
+    public void queue(String name, UUID uniqueId) {
+        this.pendingLines.add(uniqueId + " " + name);
+    }
+
+    public void flush() {
+        synchronized(this.writeLock) {
+            if(this.pendingLines.isEmpty()) return;
+
+            try(final BufferedWriter writer = Files.newBufferedWriter(this.file.toPath(), StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+                String line;
+                while((line = this.pendingLines.peek()) != null) {
+                    writer.write(line);
+                    writer.newLine();
+                    this.pendingLines.poll();
+                }
+            } catch(IOException e) {
+                this.plugin.getLogger().error("Could not write " + this.pendingLines.size() + " pending players to " + this.file.getName() + "!", e);
+            }
+        }
+    }
+
+    private void rewrite(PlayerIndex playerIndex) throws IOException {
+        final File tmpFile = new File(this.file.getPath() + ".tmp");
+        try(final BufferedWriter writer = Files.newBufferedWriter(tmpFile.toPath(), StandardCharsets.UTF_8)) {
+            for(Map.Entry<String, UUID> entry : playerIndex.getEntries().entrySet()) {
+                writer.write(entry.getValue() + " " + entry.getKey());
+                writer.newLine();
+            }
+        }
+
+        Files.move(tmpFile.toPath(), this.file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+}
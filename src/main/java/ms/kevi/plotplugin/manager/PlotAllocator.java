@@ -0,0 +1,130 @@
+/*
+ * Copyright 2022 KCodeYT
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ms.kevi.plotplugin.manager;
+
+import ms.kevi.plotplugin.util.PlotId;
+
+import java.util.*;
+import java.util.function.Predicate;
+
+/**
+ * Hands out free plots in square rings around 0;0.
+ * The ring cursor only ever moves outwards, plots which become free
+ * behind it are remembered in a separate set. Reserved plots are not
+ * handed out again until they are either claimed or released.
+ *
+ * @author Kevims KCodeYT
+ * @version 1.0
+ */
+public class PlotAllocator {
+
+    private static final Comparator<PlotId> RING_ORDER = Comparator.<PlotId>comparingInt(PlotAllocator::getRing).
+            thenComparingInt(PlotId::getX).
+            thenComparingInt(PlotId::getZ);
+
+    private final Predicate<PlotId> freeCheck;
+    private final NavigableSet<PlotId> freePlots;
+    private final Set<PlotId> reservedPlots;
+
+    private int ring;
+    private int cursorX;
+    private int cursorZ;
+
+    public PlotAllocator(Predicate<PlotId> freeCheck) {
+        this.freeCheck = freeCheck;
+        this.freePlots = new TreeSet<>(RING_ORDER);
+        this.reservedPlots = new HashSet<>();
+    }
+
+    private static int getRing(PlotId plotId) {
+        return Math.max(Math.abs(plotId.getX()), Math.abs(plotId.getZ()));
+    }
+
+    /**
+     * @return the next free plot without reserving it
+     */
+    public synchronized PlotId next() {
+        PlotId plotId;
+        while(!this.freePlots.isEmpty()) {
+            if(this.isAvailable(plotId = this.freePlots.first())) return plotId;
+            this.freePlots.remove(plotId);
+        }
+
+        while(!this.isAvailable(plotId = PlotId.of(this.cursorX, this.cursorZ))) this.advance();
+        return plotId;
+    }
+
+    /**
+     * @return the next free plot, which is reserved until it is either claimed or released again
+     */
+    public synchronized PlotId reserve() {
+        final PlotId plotId = this.next();
+        if(!this.freePlots.remove(plotId)) this.advance();
+
+        this.reservedPlots.add(plotId);
+        return plotId;
+    }
+
+    public synchronized void release(PlotId plotId) {
+        this.reservedPlots.remove(plotId);
+        if(this.isBehindCursor(plotId)) this.freePlots.add(plotId);
+    }
+
+    public synchronized void claimed(PlotId plotId) {
+        this.reservedPlots.remove(plotId);
+        this.freePlots.remove(plotId);
+    }
+
+    public synchronized boolean isReserved(PlotId plotId) {
+        return this.reservedPlots.contains(plotId);
+    }
+
+    public synchronized void reset() {
+        this.freePlots.clear();
+        this.reservedPlots.clear();
+        this.ring = 0;
+        this.cursorX = 0;
+        this.cursorZ = 0;
+    }
+
+    private boolean isAvailable(PlotId plotId) {
+        return !this.reservedPlots.contains(plotId) && this.freeCheck.test(plotId);
+    }
+
+    private boolean isBehindCursor(PlotId plotId) {
+        return RING_ORDER.compare(plotId, PlotId.of(this.cursorX, this.cursorZ)) < 0;
+    }
+
+    private void advance() {
+        if(this.cursorZ < this.ring) {
+            // Only the first and the last column of a ring are walked completely
+            this.cursorZ = this.cursorX == -this.ring || this.cursorX == this.ring ? this.cursorZ + 1 : this.ring;
+            return;
+        }
+
+        if(this.cursorX < this.ring) {
+            this.cursorX++;
+            this.cursorZ = -this.ring;
+            return;
+        }
+
+        this.ring++;
+        this.cursorX = -this.ring;
+        this.cursorZ = -this.ring;
+    }
+
+}
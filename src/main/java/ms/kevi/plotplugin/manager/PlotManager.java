@@ -17,27 +17,29 @@
 package ms.kevi.plotplugin.manager;
 
 import cn.nukkit.Player;
-import cn.nukkit.block.Block;
-import cn.nukkit.blockentity.BlockEntity;
 import cn.nukkit.blockstate.BlockState;
-import cn.nukkit.entity.Entity;
 import cn.nukkit.level.Level;
 import cn.nukkit.level.Position;
 import cn.nukkit.level.format.FullChunk;
-import cn.nukkit.level.format.generic.BaseFullChunk;
-import cn.nukkit.math.AxisAlignedBB;
 import cn.nukkit.math.BlockVector3;
-import cn.nukkit.math.SimpleAxisAlignedBB;
 import cn.nukkit.math.Vector3;
 import cn.nukkit.utils.Config;
 import it.unimi.dsi.fastutil.ints.Int2ObjectMap;
 import it.unimi.dsi.fastutil.ints.Int2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.objects.Object2IntMap;
+import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
 import lombok.Getter;
 import ms.kevi.plotplugin.PlotPlugin;
 import ms.kevi.plotplugin.event.PlotClearEvent;
 import ms.kevi.plotplugin.generator.PlotGenerator;
+import ms.kevi.plotplugin.generator.PlotGeneratorContext;
+import ms.kevi.plotplugin.metrics.MetricCounter;
+import ms.kevi.plotplugin.metrics.MetricTimer;
 import ms.kevi.plotplugin.util.*;
 import ms.kevi.plotplugin.util.async.AsyncLevelWorker;
+import ms.kevi.plotplugin.util.async.LevelAccess;
+import ms.kevi.plotplugin.util.async.PristineChunks;
+import ms.kevi.plotplugin.util.async.ServerLevelAccess;
 
 import java.io.File;
 import java.util.*;
@@ -61,10 +63,20 @@ public class PlotManager {
     private final Config config;
 
     private final Map<PlotId, Plot> plots;
+    private final Map<UUID, List<PlotId>> plotsByOwner;
+    private final PlotAllocator plotAllocator;
+    @Getter
+    private final PendingPlotResets pendingResets;
+    @Getter
+    private final PlotModifications plotModifications;
+    @Getter
+    private final PristineChunks pristineChunks = new PristineChunks();
 
     @Getter
     private Level level;
+    private LevelAccess levelAccess;
     private PlotGenerator plotGenerator;
+    private volatile PlotGeneratorContext generatorContext;
 
     public PlotManager(PlotPlugin plugin, String levelName) {
         this(plugin, levelName, new PlotLevelSettings());
@@ -73,9 +85,17 @@ public class PlotManager {
     public PlotManager(PlotPlugin plugin, String levelName, PlotLevelSettings levelSettings) {
         this.plugin = plugin;
         this.plotSchematic = new PlotSchematic(this);
-        this.plotSchematic.init(this.plotSchematicFile = new File(this.plugin.getDataFolder(), "schems/" + levelName + ".road"));
+        this.plotSchematicFile = new File(this.plugin.getDataFolder(), "schems/" + levelName + ".road");
+        this.plugin.getMetrics().time(MetricTimer.SCHEMATIC_LOAD, () -> this.plotSchematic.init(this.plotSchematicFile));
         this.config = new Config(new File(plugin.getDataFolder(), "worlds/" + levelName + ".yml"), Config.YAML);
+        this.pendingResets = new PendingPlotResets(new File(plugin.getDataFolder(), "worlds/" + levelName + ".resets.yml"));
+        this.plotModifications = new PlotModifications(new File(plugin.getDataFolder(), "worlds/" + levelName + ".modified.yml"));
         this.plots = new HashMap<>();
+        this.plotsByOwner = new HashMap<>();
+        this.plotAllocator = new PlotAllocator(plotId -> {
+            final Plot plot = this.plots.get(plotId);
+            return plot == null || !plot.hasOwner();
+        });
         this.loadAllPlots();
         this.savePlots();
         this.levelSettings = levelSettings;
@@ -85,42 +105,183 @@ public class PlotManager {
         }
 
         this.levelSettings.fromMap(this.config.get("Settings", new HashMap<>()));
+        this.updateGeneratorContext();
+    }
+
+    /**
+     * @return the generator context of this world, which stays valid until the road schematic changes
+     */
+    public PlotGeneratorContext getGeneratorContext() {
+        return this.generatorContext;
+    }
+
+    /**
+     * Recreates the generator context from the level settings and the current road schematic.
+     */
+    public synchronized void updateGeneratorContext() {
+        if(this.levelSettings == null) return;
+        this.generatorContext = new PlotGeneratorContext(this.levelSettings, this.plotSchematic.getSchematic());
     }
 
     public void initLevel(Level level) {
         this.level = level;
-        this.plotGenerator = (PlotGenerator) level.getGenerator();
+        this.plugin.registerLevel(level, this);
+        final PlotGenerator plotGenerator = (PlotGenerator) level.getGenerator();
+        this.initLevel(new ServerLevelAccess(level, fullChunk -> plotGenerator.generateChunk(this, fullChunk), this.pristineChunks, this.plugin.getChunkLoadsPerTick()), plotGenerator);
+    }
+
+    public void initLevel(LevelAccess levelAccess, PlotGenerator plotGenerator) {
+        this.levelAccess = levelAccess;
+        this.plotGenerator = plotGenerator;
     }
 
     public void reload() {
         this.plots.clear();
+        this.plotsByOwner.clear();
+        this.plotAllocator.reset();
         this.config.reload();
         this.loadAllPlots();
+        this.invalidateAccess();
+    }
+
+    /**
+     * Drops all cached access decisions of this plugin, has to be called whenever the
+     * owner, helpers, denied players or merges of a plot change.
+     */
+    public void invalidateAccess() {
+        this.plugin.getAccessCache().invalidateAll();
     }
 
     public void savePlots() {
+        final long startTime = System.nanoTime();
         final List<Map<String, Object>> plotMapList = new ArrayList<>();
         for(Plot plot : this.plots.values())
             if(!plot.isDefault()) plotMapList.add(plot.toMap());
         this.config.set("plots", plotMapList);
         this.config.save();
+        this.plugin.getMetrics().record(MetricTimer.PLOTS_SAVE, startTime);
     }
 
     private void loadAllPlots() {
         for(Map<String, Object> plotMap : this.config.<List<Map<String, Object>>>get("plots", new ArrayList<>())) {
             final Plot plot = Plot.fromConfig(this, plotMap);
-            this.plots.put(plot.getId(), plot);
+            this.addPlot(plot);
+        }
+
+        this.plots.values().forEach(Plot::updateDiagonalMerges);
+        this.computeAllOrigins();
+    }
+
+    /**
+     * Assigns the origins of all merge groups in a single pass using a union-find over the merges,
+     * instead of searching the whole group again for every plot in it.
+     */
+    private void computeAllOrigins() {
+        final List<Plot> mergedPlots = new ArrayList<>();
+        final Object2IntMap<PlotId> indices = new Object2IntOpenHashMap<>();
+        indices.defaultReturnValue(-1);
+
+        for(Plot plot : this.plots.values()) {
+            if(plot.hasNoMerges()) {
+                plot.setOrigin(plot);
+                continue;
+            }
+
+            indices.put(plot.getId(), mergedPlots.size());
+            mergedPlots.add(plot);
+        }
+
+        final int[] parents = new int[mergedPlots.size()];
+        for(int i = 0; i < parents.length; i++) parents[i] = i;
+
+        for(int i = 0; i < parents.length; i++) {
+            final Plot plot = mergedPlots.get(i);
+            for(int iDir = 0; iDir < 4; iDir++) {
+                if(!plot.isMerged(iDir)) continue;
+
+                final int neighbour = indices.getInt(plot.getRelative(iDir));
+                if(neighbour != -1) union(parents, i, neighbour);
+            }
         }
 
-        this.plots.values().forEach(Plot::recalculateOrigin);
+        final int[] origins = new int[parents.length];
+        Arrays.fill(origins, -1);
+        for(int i = 0; i < parents.length; i++) {
+            final int root = find(parents, i);
+            if(origins[root] == -1 || mergedPlots.get(i).getId().compareTo(mergedPlots.get(origins[root]).getId()) < 0)
+                origins[root] = i;
+        }
+
+        for(int i = 0; i < parents.length; i++)
+            mergedPlots.get(i).setOrigin(mergedPlots.get(origins[find(parents, i)]));
+    }
+
+    private static int find(int[] parents, int index) {
+        while(parents[index] != index) {
+            parents[index] = parents[parents[index]];
+            index = parents[index];
+        }
+
+        return index;
+    }
+
+    private static void union(int[] parents, int indexA, int indexB) {
+        final int rootA = find(parents, indexA);
+        final int rootB = find(parents, indexB);
+        if(rootA != rootB) parents[Math.max(rootA, rootB)] = Math.min(rootA, rootB);
+    }
+
+    /**
+     * Reassigns the origins of the merge groups containing the given plots, every group is only searched once.
+     */
+    public void updateOrigins(Collection<Plot> plots) {
+        final Set<Plot> updated = new HashSet<>();
+        for(Plot plot : plots) {
+            if(updated.contains(plot)) continue;
+
+            final Set<Plot> group = this.getConnectedPlots(plot);
+            final Plot origin = Collections.min(group, Comparator.comparing(Plot::getId));
+            for(Plot member : group) member.setOrigin(origin);
+            updated.addAll(group);
+        }
     }
 
     public void addPlot(Plot plot) {
-        this.plots.put(plot.getId(), plot);
+        final Plot oldPlot = this.plots.put(plot.getId(), plot);
+        if(oldPlot != null && oldPlot.hasOwner()) this.removeFromOwnerIndex(oldPlot.getOwner(), oldPlot.getId());
+        if(plot.hasOwner()) this.addToOwnerIndex(plot.getOwner(), plot.getId());
     }
 
     private void removePlot(Plot plot) {
-        this.plots.remove(plot.getId());
+        if(this.plots.remove(plot.getId()) != null && plot.hasOwner())
+            this.removeFromOwnerIndex(plot.getOwner(), plot.getId());
+    }
+
+    public void updateOwnerIndex(Plot plot, UUID oldOwner) {
+        if(Objects.equals(oldOwner, plot.getOwner()) || this.plots.get(plot.getId()) != plot) return;
+
+        if(oldOwner != null) this.removeFromOwnerIndex(oldOwner, plot.getId());
+        if(plot.hasOwner()) this.addToOwnerIndex(plot.getOwner(), plot.getId());
+
+        if(plot.hasOwner()) this.plotAllocator.claimed(plot.getId());
+        else this.plotAllocator.release(plot.getId());
+
+        this.invalidateAccess();
+    }
+
+    private void addToOwnerIndex(UUID ownerId, PlotId plotId) {
+        final List<PlotId> plotIds = this.plotsByOwner.computeIfAbsent(ownerId, id -> new ArrayList<>());
+        final int index = Collections.binarySearch(plotIds, plotId);
+        if(index < 0) plotIds.add(-index - 1, plotId);
+    }
+
+    private void removeFromOwnerIndex(UUID ownerId, PlotId plotId) {
+        final List<PlotId> plotIds = this.plotsByOwner.get(ownerId);
+        if(plotIds == null) return;
+
+        final int index = Collections.binarySearch(plotIds, plotId);
+        if(index >= 0) plotIds.remove(index);
+        if(plotIds.isEmpty()) this.plotsByOwner.remove(ownerId);
     }
 
     public Plot getMergedPlot(int x, int z) {
@@ -151,6 +312,14 @@ public class PlotManager {
         }
     }
 
+    /**
+     * Marks the plot chunk the block position belongs to as modified, positions on roads are ignored.
+     */
+    public void markModified(int x, int z) {
+        final PlotId plotId = this.getPlotIdByPos(x, z);
+        if(plotId != null) this.plotModifications.markModified(plotId, x >> 4, z >> 4);
+    }
+
     public Plot getPlot(int x, int z) {
         final PlotId plotId = this.getPlotIdByPos(x, z);
         if(plotId == null) return null;
@@ -183,6 +352,27 @@ public class PlotManager {
         return this.plots.computeIfAbsent(PlotId.of(plotX, plotZ), id -> new Plot(this, id, null));
     }
 
+    /**
+     * Returns the plot with the given id without creating a default plot if there is none yet.
+     */
+    public Plot getExistingPlot(PlotId plotId) {
+        return this.plots.get(plotId);
+    }
+
+    /**
+     * Recalculates the diagonal merges of the given plots and the plots around them.
+     */
+    public void updateDiagonalMerges(Collection<Plot> plots) {
+        for(Plot plot : plots) {
+            for(int x = -1; x <= 1; x++) {
+                for(int z = -1; z <= 1; z++) {
+                    final Plot neighbour = this.plots.get(plot.getId().add(x, z));
+                    if(neighbour != null) neighbour.updateDiagonalMerges();
+                }
+            }
+        }
+    }
+
     private Vector3 getPosByPlot(Plot plot) {
         return this.getPosByPlotId(plot.getId());
     }
@@ -198,30 +388,35 @@ public class PlotManager {
     }
 
     public Plot getNextFreePlot() {
-        int i = 0;
-        while(true) {
-            for(int x = -i; x <= i; x++) {
-                for(int z = -i; z <= i; z++) {
-                    if((x != i && x != -i) && (z != i && z != -i)) continue;
-
-                    final Plot plot;
-                    if((plot = this.getPlotById(x, z)) != null && !plot.hasOwner())
-                        return plot;
-                }
-            }
+        return this.getPlotById(this.plotAllocator.next());
+    }
 
-            i++;
-        }
+    /**
+     * Reserves the next free plot, so it is not handed out again before it gets claimed.
+     * The reservation has to be released with {@link #releasePlotReservation(Plot)} if the plot does not get claimed.
+     */
+    public Plot reserveNextFreePlot() {
+        return this.getPlotById(this.plotAllocator.reserve());
+    }
+
+    public void releasePlotReservation(Plot plot) {
+        if(!plot.hasOwner()) this.plotAllocator.release(plot.getId());
     }
 
     public List<Plot> getPlotsByOwner(UUID ownerId) {
-        final List<Plot> plots = new ArrayList<>();
-        for(Plot plot : this.plots.values())
-            if(plot.isOwner(ownerId))
-                plots.add(plot);
+        final List<PlotId> plotIds = this.plotsByOwner.get(ownerId);
+        if(plotIds == null) return new ArrayList<>();
+
+        final List<Plot> plots = new ArrayList<>(plotIds.size());
+        for(PlotId plotId : plotIds) plots.add(this.plots.get(plotId));
         return plots;
     }
 
+    public int getPlotCountByOwner(UUID ownerId) {
+        final List<PlotId> plotIds = this.plotsByOwner.get(ownerId);
+        return plotIds == null ? 0 : plotIds.size();
+    }
+
     public Set<Plot> getConnectedPlots(Plot plot) {
         if(plot.hasNoMerges()) return Collections.singleton(plot);
 
@@ -234,8 +429,10 @@ public class PlotManager {
         for(int iDir = 0; iDir < 4; iDir++) {
             if(plot.isMerged(iDir)) {
                 tmp = this.getPlotById(plot.getRelative(iDir));
-                if(!tmp.isMerged(opposites[iDir]))
+                if(!tmp.isMerged(opposites[iDir])) {
                     tmp.setMerged(opposites[iDir], true);
+                    this.updateDiagonalMerges(Collections.singleton(tmp));
+                }
                 queueCache.add(tmp);
                 frontier.add(tmp);
             }
@@ -268,17 +465,22 @@ public class PlotManager {
     }
 
     public boolean startMerge(Plot plot, Set<Plot> plots) {
+        final long startTime = System.nanoTime();
         final WhenDone whenDone = new WhenDone(() -> {
             this.finishPlotMerge(plots);
 
+            final Plot origin = Collections.min(plots, Comparator.comparing(Plot::getId));
             for(Plot other : plots) {
-                other.recalculateOrigin();
+                other.setOrigin(origin);
                 if(!other.equals(plot)) this.mergePlotData(plot, other);
             }
 
             this.savePlots();
+            this.invalidateAccess();
+            this.plugin.getMetrics().record(MetricTimer.PLOT_MERGE, startTime);
         });
 
+        final RoadEditPlanner editPlanner = this.createEditPlanner();
         int relativeDir;
         for(Plot toMerge0 : plots) {
             for(Plot toMerge1 : plots) {
@@ -286,18 +488,26 @@ public class PlotManager {
 
                 relativeDir = toMerge0.getRelativeDir(toMerge1.getId());
                 if(relativeDir != -1 && !toMerge0.isMerged(relativeDir))
-                    this.mergePlot(toMerge0, toMerge1, whenDone);
+                    this.mergePlot(toMerge0, toMerge1, editPlanner);
 
                 relativeDir = toMerge1.getRelativeDir(toMerge0.getId());
                 if(relativeDir != -1 && !toMerge1.isMerged(relativeDir))
-                    this.mergePlot(toMerge1, toMerge0, whenDone);
+                    this.mergePlot(toMerge1, toMerge0, editPlanner);
             }
         }
 
+        editPlanner.execute(whenDone);
         whenDone.start();
         return true;
     }
 
+    /**
+     * Takes over the saved values of a flag which was registered after the plots were loaded.
+     */
+    public void loadFlag(PlotFlag<?> flag) {
+        for(Plot plot : this.plots.values()) plot.loadFlag(flag);
+    }
+
     private void mergePlotData(Plot plotA, Plot plotB) {
         plotA.getHelpers().addAll(plotB.getHelpers().stream().filter(helperId -> !plotA.isHelper(helperId)).toList());
         plotB.getHelpers().clear();
@@ -322,6 +532,8 @@ public class PlotManager {
             plotBConfig.putAll(config);
         }
 
+        plotA.mergeFlags(plotB);
+
         if(plotA.getHomePosition() != null) plotB.setHomePosition(plotA.getHomePosition());
         if(plotB.getHomePosition() != null) plotA.setHomePosition(plotB.getHomePosition());
     }
@@ -337,7 +549,7 @@ public class PlotManager {
         }
     }
 
-    private void mergePlot(Plot lesserPlot, Plot greaterPlot, WhenDone whenDone) {
+    private void mergePlot(Plot lesserPlot, Plot greaterPlot, RoadEditPlanner editPlanner) {
         if(lesserPlot.getId().getX() == greaterPlot.getId().getX()) {
             if(lesserPlot.getId().getZ() > greaterPlot.getId().getZ()) {
                 final Plot tmp = lesserPlot;
@@ -348,14 +560,15 @@ public class PlotManager {
             if(!lesserPlot.isMerged(2)) {
                 lesserPlot.setMerged(2, true);
                 greaterPlot.setMerged(0, true);
+                this.updateDiagonalMerges(List.of(lesserPlot, greaterPlot));
 
-                this.removeRoadSouth(lesserPlot, whenDone);
+                this.planRoad(editPlanner, lesserPlot, 2, true);
                 final Plot diagonal = this.getPlotById(greaterPlot.getRelative(1));
                 if(diagonal.isMerged(7))
-                    this.removeRoadSouthEast(lesserPlot, whenDone);
+                    this.planRoad(editPlanner, lesserPlot, 5, true);
                 final Plot below = this.getPlotById(greaterPlot.getRelative(3));
                 if(below.isMerged(4))
-                    this.removeRoadSouthEast(this.getPlotById(below.getRelative(0)), whenDone);
+                    this.planRoad(editPlanner, this.getPlotById(below.getRelative(0)), 5, true);
             }
         } else {
             if(lesserPlot.getId().getX() > greaterPlot.getId().getX()) {
@@ -367,14 +580,15 @@ public class PlotManager {
             if(!lesserPlot.isMerged(1)) {
                 lesserPlot.setMerged(1, true);
                 greaterPlot.setMerged(3, true);
+                this.updateDiagonalMerges(List.of(lesserPlot, greaterPlot));
 
                 final Plot diagonal = this.getPlotById(greaterPlot.getRelative(2));
                 if(diagonal.isMerged(7))
-                    this.removeRoadSouthEast(lesserPlot, whenDone);
-                this.removeRoadEast(lesserPlot, whenDone);
+                    this.planRoad(editPlanner, lesserPlot, 5, true);
+                this.planRoad(editPlanner, lesserPlot, 1, true);
                 final Plot below = this.getPlotById(greaterPlot.getRelative(0));
                 if(below.isMerged(6))
-                    this.removeRoadSouthEast(this.getPlotById(below.getRelative(3)), whenDone);
+                    this.planRoad(editPlanner, this.getPlotById(below.getRelative(3)), 5, true);
             }
         }
     }
@@ -382,7 +596,12 @@ public class PlotManager {
     public void unlinkPlotFromNeighbors(Plot centerPlot) {
         if(centerPlot.hasNoMerges()) return;
 
-        final WhenDone whenDone = new WhenDone(() -> this.finishPlotUnlinkFromNeighbors(centerPlot));
+        final long startTime = System.nanoTime();
+        final WhenDone whenDone = new WhenDone(() -> {
+            this.finishPlotUnlinkFromNeighbors(centerPlot);
+            this.invalidateAccess();
+            this.plugin.getMetrics().record(MetricTimer.PLOT_UNLINK, startTime);
+        });
 
         final Int2ObjectMap<int[]> plotsToUnlink = new Int2ObjectOpenHashMap<>();
         plotsToUnlink.put(-1, new int[]{1, 2, 5});
@@ -390,20 +609,15 @@ public class PlotManager {
         plotsToUnlink.put(3, new int[]{1, 5});
         plotsToUnlink.put(7, new int[]{5});
 
+        final RoadEditPlanner editPlanner = this.createEditPlanner();
         for(Int2ObjectMap.Entry<int[]> entry : plotsToUnlink.int2ObjectEntrySet()) {
             final Plot plot = this.getPlotById(centerPlot.getRelative(entry.getIntKey()));
 
-            for(int unlinkDir : entry.getValue()) {
-                if(!plot.isMerged(unlinkDir)) continue;
-
-                switch(unlinkDir) {
-                    case 1 -> this.createRoadEast(plot, whenDone);
-                    case 2 -> this.createRoadSouth(plot, whenDone);
-                    case 5 -> this.createRoadSouthEast(plot, whenDone);
-                }
-            }
+            for(int unlinkDir : entry.getValue())
+                if(plot.isMerged(unlinkDir)) this.planRoad(editPlanner, plot, unlinkDir, false);
         }
 
+        editPlanner.execute(whenDone);
         whenDone.start();
     }
 
@@ -411,20 +625,27 @@ public class PlotManager {
         if(centerPlot.hasNoMerges()) return;
 
         final Set<Plot> plots = this.getConnectedPlots(centerPlot);
-        final WhenDone whenDone = new WhenDone(() -> this.finishPlotUnlinkFromAll(plots));
+        final long startTime = System.nanoTime();
+        final WhenDone whenDone = new WhenDone(() -> {
+            this.finishPlotUnlinkFromAll(plots);
+            this.invalidateAccess();
+            this.plugin.getMetrics().record(MetricTimer.PLOT_UNLINK, startTime);
+        });
 
+        final RoadEditPlanner editPlanner = this.createEditPlanner();
         for(Plot current : plots) {
             if(current.isMerged(1)) {
-                this.createRoadEast(current, whenDone);
+                this.planRoad(editPlanner, current, 1, false);
                 if(current.isMerged(2)) {
-                    this.createRoadSouth(current, whenDone);
+                    this.planRoad(editPlanner, current, 2, false);
                     if(current.isMerged(5))
-                        this.createRoadSouthEast(current, whenDone);
+                        this.planRoad(editPlanner, current, 5, false);
                 }
             } else if(current.isMerged(2))
-                this.createRoadSouth(current, whenDone);
+                this.planRoad(editPlanner, current, 2, false);
         }
 
+        editPlanner.execute(whenDone);
         whenDone.start();
     }
 
@@ -448,8 +669,9 @@ public class PlotManager {
             }
         }
 
+        this.updateDiagonalMerges(plots);
+        this.updateOrigins(plots);
         for(Plot plot : plots) {
-            plot.recalculateOrigin();
             this.changeBorder(plot, plot.hasOwner() ? claimBlock : wallBlock);
             this.changeWall(plot, wallFillingBlock);
             this.clearWallAbove(plot);
@@ -462,324 +684,117 @@ public class PlotManager {
         final BlockState wallBlock = BlockState.of(this.levelSettings.getWallPlotBlockId(), this.levelSettings.getWallPlotBlockMeta());
         final BlockState wallFillingBlock = BlockState.of(this.levelSettings.getWallFillingBlockId(), this.levelSettings.getWallFillingBlockMeta());
 
-        for(Plot plot : plots) {
+        for(Plot plot : plots)
             for(int iDir = 0; iDir < 4; iDir++)
                 plot.setMerged(iDir, false);
+
+        this.updateDiagonalMerges(plots);
+        for(Plot plot : plots) {
             this.changeBorder(plot, plot.hasOwner() ? claimBlock : wallBlock);
             this.changeWall(plot, wallFillingBlock);
             this.clearWallAbove(plot);
-            plot.recalculateOrigin();
+            plot.setOrigin(plot);
             this.savePlots();
         }
     }
 
-    private Set<FullChunk> pasteRoadSchematic(int minX, int minZ, int maxX, int maxZ) {
-        final Set<FullChunk> visited = new HashSet<>();
-
-        for(int x = minX; x <= maxX; x++) {
-            for(int z = minZ; z <= maxZ; z++) {
-                final BaseFullChunk fullChunk = this.level.getChunk(x >> 4, z >> 4);
-                if(visited.contains(fullChunk)) continue;
-
-                visited.add(fullChunk);
-                this.plotGenerator.regenerateChunkWithin(this, fullChunk, minX, minZ, maxX, maxZ);
+    /**
+     * Applies the plot resets which were deferred until the chunk gets loaded, has to be called before the chunk is sent to players.
+     */
+    public void applyPendingResets(FullChunk fullChunk, boolean newChunk) {
+        final Set<PlotId> plotIds = this.pendingResets.remove(fullChunk.getX(), fullChunk.getZ());
+        if(plotIds.isEmpty()) return;
+
+        if(!newChunk) {
+            final int plotSize = this.levelSettings.getPlotSize();
+            long changed = 0;
+            for(PlotId plotId : plotIds) {
+                final Vector3 plotPosition = this.getPosByPlotId(plotId);
+                final int minX = plotPosition.getFloorX();
+                final int minZ = plotPosition.getFloorZ();
+                changed += this.plotGenerator.resetPlotWithin(this, fullChunk, minX, minZ, minX + plotSize, minZ + plotSize);
             }
-        }
-
-        return visited;
-    }
-
-    private void removeRoadEast(Plot plot, WhenDone whenDone) {
-        final int groundHeight = this.levelSettings.getGroundHeight();
-        final int roadSize = this.levelSettings.getRoadSize();
-        final int minY = LevelUtils.getChunkMinY(this.levelSettings.getDimension());
-        final int maxY = LevelUtils.getChunkMaxY(this.levelSettings.getDimension());
-
-        final BlockVector3 pos1 = this.getBottomPlotPos(plot);
-        final BlockVector3 pos2 = this.getTopPlotPos(plot);
 
-        final int minX = pos2.getX() + 1;
-        final int minZ = pos1.getZ();
-        final int maxX = minX + roadSize - 1;
-        final int maxZ = pos2.getZ();
-
-        final AxisAlignedBB bb = new SimpleAxisAlignedBB(minX, minY, minZ, maxX, maxY, maxZ);
-
-        for(Entity entity : this.level.getCollidingEntities(bb))
-            if(!(entity instanceof Player)) entity.close();
+            if(changed > 0) {
+                this.pristineChunks.markModified(fullChunk.getX(), fullChunk.getZ());
+                fullChunk.setChanged();
+            }
 
-        for(Block block : this.level.getCollisionBlocks(bb, false, true)) {
-            final BlockEntity blockEntity = block.getLevelBlockEntity();
-            if(blockEntity != null) blockEntity.close();
+            this.plugin.getMetrics().add(MetricCounter.BLOCKS_WRITTEN, changed);
         }
 
-        final AsyncLevelWorker asyncLevelWorker = new AsyncLevelWorker(this.level);
-        asyncLevelWorker.queueFill(
-                new BlockVector3(minX, minY + 1, minZ),
-                new BlockVector3(maxX, minY + groundHeight - 1, maxZ),
-                this.levelSettings.getMiddleLayerState()
-        );
-        asyncLevelWorker.queueFill(
-                new BlockVector3(minX, minY + groundHeight, minZ),
-                new BlockVector3(maxX, minY + groundHeight, maxZ),
-                this.levelSettings.getLastLayerState()
-        );
-        asyncLevelWorker.queueFill(
-                new BlockVector3(minX, minY + groundHeight + 1, minZ),
-                new BlockVector3(maxX, maxY, maxZ),
-                BlockState.AIR
-        );
-        asyncLevelWorker.runQueue(whenDone);
+        this.pendingResets.saveAsync();
     }
 
-    private void removeRoadSouth(Plot plot, WhenDone whenDone) {
-        final int groundHeight = this.levelSettings.getGroundHeight();
-        final int roadSize = this.levelSettings.getRoadSize();
-        final int minY = LevelUtils.getChunkMinY(this.levelSettings.getDimension());
-        final int maxY = LevelUtils.getChunkMaxY(this.levelSettings.getDimension());
-
-        final BlockVector3 pos1 = this.getBottomPlotPos(plot);
-        final BlockVector3 pos2 = this.getTopPlotPos(plot);
-
-        final int minX = pos1.getX();
-        final int minZ = pos2.getZ() + 1;
-        final int maxX = pos2.getX();
-        final int maxZ = minZ + roadSize - 1;
-
-        final AxisAlignedBB bb = new SimpleAxisAlignedBB(minX, minY, minZ, maxX, maxY, maxZ);
-
-        for(Entity entity : this.level.getCollidingEntities(bb))
-            if(!(entity instanceof Player)) entity.close();
-
-        for(Block block : this.level.getCollisionBlocks(bb, false, true)) {
-            final BlockEntity blockEntity = block.getLevelBlockEntity();
-            if(blockEntity != null) blockEntity.close();
-        }
-
-        final AsyncLevelWorker asyncLevelWorker = new AsyncLevelWorker(this.level);
-        asyncLevelWorker.queueFill(
-                new BlockVector3(minX, minY + 1, minZ),
-                new BlockVector3(maxX, minY + groundHeight - 1, maxZ),
-                this.levelSettings.getMiddleLayerState()
-        );
-        asyncLevelWorker.queueFill(
-                new BlockVector3(minX, minY + groundHeight, minZ),
-                new BlockVector3(maxX, minY + groundHeight, maxZ),
-                this.levelSettings.getLastLayerState()
-        );
-        asyncLevelWorker.queueFill(
-                new BlockVector3(minX, minY + groundHeight + 1, minZ),
-                new BlockVector3(maxX, maxY, maxZ),
-                BlockState.AIR
-        );
-        asyncLevelWorker.runQueue(whenDone);
+    /**
+     * Checks whether the chunk is used by a running edit and has to stay loaded.
+     */
+    public boolean isChunkPinned(int chunkX, int chunkZ) {
+        return this.levelAccess != null && this.levelAccess.isChunkPinned(chunkX, chunkZ);
     }
 
-    private void removeRoadSouthEast(Plot plot, WhenDone whenDone) {
-        final int groundHeight = this.levelSettings.getGroundHeight();
-        final int roadSize = this.levelSettings.getRoadSize();
-        final int minY = LevelUtils.getChunkMinY(this.levelSettings.getDimension());
-        final int maxY = LevelUtils.getChunkMaxY(this.levelSettings.getDimension());
-
-        final BlockVector3 pos = this.getTopPlotPos(plot);
-
-        final int minX = pos.getX() + 1;
-        final int minZ = pos.getZ() + 1;
-        final int maxX = minX + roadSize - 1;
-        final int maxZ = minZ + roadSize - 1;
-
-        final AxisAlignedBB bb = new SimpleAxisAlignedBB(minX, minY, minZ, maxX, maxY, maxZ);
+    /**
+     * Regenerates the roads and walls of all existing chunks in the radius around the center chunk.
+     * The chunks are edited row by row, so only one row of chunks is loaded and pinned at a time.
+     */
+    public void regenerateAllRoads(int centerChunkX, int centerChunkZ, int chunkRadius, Runnable finishCallback) {
+        final long startTime = System.nanoTime();
+        this.regenerateRoadRow(centerChunkX, centerChunkZ, chunkRadius, -chunkRadius, () -> {
+            this.plugin.getMetrics().record(MetricTimer.ROAD_REGENERATION, startTime);
+            finishCallback.run();
+        });
+    }
 
-        for(Entity entity : this.level.getCollidingEntities(bb))
-            if(!(entity instanceof Player)) entity.close();
+    private void regenerateRoadRow(int centerChunkX, int centerChunkZ, int chunkRadius, int row, Runnable finishCallback) {
+        if(row > chunkRadius) {
+            finishCallback.run();
+            return;
+        }
 
-        for(Block block : this.level.getCollisionBlocks(bb, false, true)) {
-            final BlockEntity blockEntity = block.getLevelBlockEntity();
-            if(blockEntity != null) blockEntity.close();
+        final AsyncLevelWorker asyncLevelWorker = this.createWorker();
+        final int chunkX = centerChunkX + row;
+        for(int chunkZ = centerChunkZ - chunkRadius; chunkZ <= centerChunkZ + chunkRadius; chunkZ++) {
+            asyncLevelWorker.queueChunkEdit(chunkX, chunkZ, false, fullChunk -> {
+                final int minX = fullChunk.getX() << 4;
+                final int minZ = fullChunk.getZ() << 4;
+                return this.plotGenerator.regenerateChunkWithin(this, fullChunk, minX, minZ, minX + 15, minZ + 15);
+            });
         }
 
-        final AsyncLevelWorker asyncLevelWorker = new AsyncLevelWorker(this.level);
-        asyncLevelWorker.queueFill(
-                new BlockVector3(minX, minY + 1, minZ),
-                new BlockVector3(maxX, minY + groundHeight - 1, maxZ),
-                this.levelSettings.getMiddleLayerState()
-        );
-        asyncLevelWorker.queueFill(
-                new BlockVector3(minX, minY + groundHeight, minZ),
-                new BlockVector3(maxX, minY + groundHeight, maxZ),
-                this.levelSettings.getLastLayerState()
-        );
-        asyncLevelWorker.queueFill(
-                new BlockVector3(minX, minY + groundHeight + 1, minZ),
-                new BlockVector3(maxX, maxY, maxZ),
-                BlockState.AIR
-        );
+        final WhenDone whenDone = new WhenDone(() -> this.regenerateRoadRow(centerChunkX, centerChunkZ, chunkRadius, row + 1, finishCallback));
         asyncLevelWorker.runQueue(whenDone);
+        whenDone.start();
     }
 
-    private void createRoadEast(Plot plot, WhenDone whenDone) {
-        final int groundHeight = this.levelSettings.getGroundHeight();
-        final int roadSize = this.levelSettings.getRoadSize();
-        final int minY = LevelUtils.getChunkMinY(this.levelSettings.getDimension());
-        final int maxY = LevelUtils.getChunkMaxY(this.levelSettings.getDimension());
-
-        final BlockVector3 pos1 = this.getBottomPlotPos(plot);
-        final BlockVector3 pos2 = this.getTopPlotPos(plot);
-
-        final int minX = pos2.getX() + 2;
-        final int minZ = pos1.getZ() - 1;
-        final int maxX = minX + roadSize - 2;
-        final int maxZ = pos2.getZ() + 1;
-
-        final AxisAlignedBB bb = new SimpleAxisAlignedBB(minX, minY, minZ, maxX, maxY, maxZ);
-
-        for(Entity entity : this.level.getCollidingEntities(bb))
-            if(!(entity instanceof Player)) entity.close();
-
-        for(Block block : this.level.getCollisionBlocks(bb, false, true)) {
-            final BlockEntity blockEntity = block.getLevelBlockEntity();
-            if(blockEntity != null) blockEntity.close();
-        }
-
-        final AsyncLevelWorker asyncLevelWorker = new AsyncLevelWorker(this.level);
-        asyncLevelWorker.queueFill(
-                new BlockVector3(minX, minY, minZ),
-                new BlockVector3(maxX, minY, maxZ),
-                this.levelSettings.getFirstLayerState()
-        );
-        asyncLevelWorker.queueFill(
-                new BlockVector3(minX, minY + 1, minZ),
-                new BlockVector3(maxX, minY + groundHeight, maxZ),
-                this.levelSettings.getWallFillingState()
-        );
-        asyncLevelWorker.queueFill(
-                new BlockVector3(minX, minY + 1, minZ),
-                new BlockVector3(maxX, minY + groundHeight - 1, maxZ),
-                this.levelSettings.getRoadFillingState()
-        );
-        asyncLevelWorker.queueFill(
-                new BlockVector3(minX, minY + groundHeight, minZ),
-                new BlockVector3(maxX, minY + groundHeight, maxZ),
-                this.levelSettings.getRoadState()
-        );
-        asyncLevelWorker.queueFill(
-                new BlockVector3(minX, minY + groundHeight + 1, minZ),
-                new BlockVector3(maxX, maxY, maxZ),
-                BlockState.AIR
-        );
-
-        if(this.plotSchematic.getSchematic() != null)
-            asyncLevelWorker.addTask(() -> this.pasteRoadSchematic(minX, minZ, maxX, maxZ));
+    AsyncLevelWorker createWorker() {
+        return new AsyncLevelWorker(this.levelAccess, this.plugin.getMetrics(), this.plugin.getBlockUpdateThreshold());
+    }
 
-        asyncLevelWorker.runQueue(whenDone);
+    private RoadEditPlanner createEditPlanner() {
+        return new RoadEditPlanner(this, this.levelAccess, this.plotGenerator, this.plugin.getMetrics());
     }
 
-    private void createRoadSouth(Plot plot, WhenDone whenDone) {
-        final int groundHeight = this.levelSettings.getGroundHeight();
+    /**
+     * Plans to open or close the road of the plot in the direction 1 (east), 2 (south) or 5 (south east intersection).
+     */
+    private void planRoad(RoadEditPlanner editPlanner, Plot plot, int direction, boolean open) {
         final int roadSize = this.levelSettings.getRoadSize();
-        final int minY = LevelUtils.getChunkMinY(this.levelSettings.getDimension());
-        final int maxY = LevelUtils.getChunkMaxY(this.levelSettings.getDimension());
-
         final BlockVector3 pos1 = this.getBottomPlotPos(plot);
         final BlockVector3 pos2 = this.getTopPlotPos(plot);
 
-        final int minX = pos1.getX() - 1;
-        final int minZ = pos2.getZ() + 2;
-        final int maxX = pos2.getX() + 1;
-        final int maxZ = minZ + roadSize - 2;
-
-        final AxisAlignedBB bb = new SimpleAxisAlignedBB(minX, minY, minZ, maxX, maxY, maxZ);
-
-        for(Entity entity : this.level.getCollidingEntities(bb))
-            if(!(entity instanceof Player)) entity.close();
-
-        for(Block block : this.level.getCollisionBlocks(bb, false, true)) {
-            final BlockEntity blockEntity = block.getLevelBlockEntity();
-            if(blockEntity != null) blockEntity.close();
-        }
-
-        final AsyncLevelWorker asyncLevelWorker = new AsyncLevelWorker(this.level);
-        asyncLevelWorker.queueFill(
-                new BlockVector3(minX, minY, minZ),
-                new BlockVector3(maxX, minY, maxZ),
-                this.levelSettings.getFirstLayerState()
-        );
-        asyncLevelWorker.queueFill(
-                new BlockVector3(minX, minY + 1, minZ),
-                new BlockVector3(maxX, minY + groundHeight, maxZ),
-                this.levelSettings.getWallFillingState()
-        );
-        asyncLevelWorker.queueFill(
-                new BlockVector3(minX, minY + 1, minZ + 1),
-                new BlockVector3(maxX, minY + groundHeight - 1, maxZ),
-                this.levelSettings.getRoadFillingState()
-        );
-        asyncLevelWorker.queueFill(
-                new BlockVector3(minX, minY + groundHeight, minZ),
-                new BlockVector3(maxX, minY + groundHeight, maxZ),
-                this.levelSettings.getRoadState()
-        );
-        asyncLevelWorker.queueFill(
-                new BlockVector3(minX, minY + groundHeight + 1, minZ),
-                new BlockVector3(maxX, maxY, maxZ),
-                BlockState.AIR
-        );
-
-        if(this.plotSchematic.getSchematic() != null)
-            asyncLevelWorker.addTask(() -> this.pasteRoadSchematic(minX, minZ, maxX, maxZ));
-
-        asyncLevelWorker.runQueue(whenDone);
-    }
-
-    private void createRoadSouthEast(Plot plot, WhenDone whenDone) {
-        final int groundHeight = this.levelSettings.getGroundHeight();
-        final int roadSize = this.levelSettings.getRoadSize();
-        final int minY = LevelUtils.getChunkMinY(this.levelSettings.getDimension());
-        final int maxY = LevelUtils.getChunkMaxY(this.levelSettings.getDimension());
-
-        final BlockVector3 pos = this.getTopPlotPos(plot);
-
-        final int minX = pos.getX() + 2;
-        final int minZ = pos.getZ() + 2;
-        final int maxX = minX + roadSize - 2;
-        final int maxZ = minZ + roadSize - 2;
-
-        final AxisAlignedBB bb = new SimpleAxisAlignedBB(minX, minY, minZ, maxX, maxY, maxZ);
-
-        for(Entity entity : this.level.getCollidingEntities(bb))
-            if(!(entity instanceof Player)) entity.close();
-
-        for(Block block : this.level.getCollisionBlocks(bb, false, true)) {
-            final BlockEntity blockEntity = block.getLevelBlockEntity();
-            if(blockEntity != null) blockEntity.close();
+        if(open) {
+            switch(direction) {
+                case 1 -> editPlanner.openRoad(pos2.getX() + 1, pos1.getZ(), pos2.getX() + roadSize, pos2.getZ());
+                case 2 -> editPlanner.openRoad(pos1.getX(), pos2.getZ() + 1, pos2.getX(), pos2.getZ() + roadSize);
+                case 5 -> editPlanner.openRoad(pos2.getX() + 1, pos2.getZ() + 1, pos2.getX() + roadSize, pos2.getZ() + roadSize);
+            }
+        } else {
+            switch(direction) {
+                case 1 -> editPlanner.closeRoad(pos2.getX() + 2, pos1.getZ() - 1, pos2.getX() + roadSize, pos2.getZ() + 1, pos1.getZ() - 1);
+                case 2 -> editPlanner.closeRoad(pos1.getX() - 1, pos2.getZ() + 2, pos2.getX() + 1, pos2.getZ() + roadSize, pos2.getZ() + 3);
+                case 5 -> editPlanner.closeRoad(pos2.getX() + 2, pos2.getZ() + 2, pos2.getX() + roadSize, pos2.getZ() + roadSize, pos2.getZ() + 2);
+            }
         }
-
-        final AsyncLevelWorker asyncLevelWorker = new AsyncLevelWorker(this.level);
-        asyncLevelWorker.queueFill(
-                new BlockVector3(minX, minY, minZ),
-                new BlockVector3(maxX, minY, maxZ),
-                this.levelSettings.getFirstLayerState()
-        );
-        asyncLevelWorker.queueFill(
-                new BlockVector3(minX, minY + 1, minZ),
-                new BlockVector3(maxX, minY + groundHeight, maxZ),
-                this.levelSettings.getRoadFillingState()
-        );
-        asyncLevelWorker.queueFill(
-                new BlockVector3(minX, minY + groundHeight, minZ),
-                new BlockVector3(maxX, minY + groundHeight, maxZ),
-                this.levelSettings.getRoadState()
-        );
-        asyncLevelWorker.queueFill(
-                new BlockVector3(minX, minY + groundHeight + 1, minZ),
-                new BlockVector3(maxX, maxY, maxZ),
-                BlockState.AIR
-        );
-
-        if(this.plotSchematic.getSchematic() != null)
-            asyncLevelWorker.addTask(() -> this.pasteRoadSchematic(minX, minZ, maxX, maxZ));
-
-        asyncLevelWorker.runQueue(whenDone);
     }
 
     private BlockVector3 getTopPlotPos(Plot plot) {
@@ -819,7 +834,7 @@ public class PlotManager {
 
         final BlockVector3 bottom = this.getExtendedBottomPlotPos(plot).subtract(plot.isMerged(3) ? 1 : 0, 0, plot.isMerged(0) ? 1 : 0);
         final BlockVector3 top = this.getExtendedTopPlotPos(plot).add(1, 0, 1);
-        final AsyncLevelWorker asyncLevelWorker = new AsyncLevelWorker(this.level);
+        final AsyncLevelWorker asyncLevelWorker = this.createWorker();
         final int minY = LevelUtils.getChunkMinY(this.levelSettings.getDimension());
         final int y = minY + this.levelSettings.getGroundHeight() + 1;
 
@@ -908,7 +923,7 @@ public class PlotManager {
         final BlockState blockState = BlockState.AIR;
         final BlockVector3 bottom = this.getExtendedBottomPlotPos(plot).subtract(plot.isMerged(3) ? 1 : 0, 0, plot.isMerged(0) ? 1 : 0);
         final BlockVector3 top = this.getExtendedTopPlotPos(plot).add(1, 0, 1);
-        final AsyncLevelWorker asyncLevelWorker = new AsyncLevelWorker(this.level);
+        final AsyncLevelWorker asyncLevelWorker = this.createWorker();
         final int minY = LevelUtils.getChunkMinY(this.levelSettings.getDimension()) + this.levelSettings.getGroundHeight() + 2;
         final int maxY = LevelUtils.getChunkMaxY(this.levelSettings.getDimension());
 
@@ -998,7 +1013,7 @@ public class PlotManager {
         final BlockVector3 top = this.getExtendedTopPlotPos(plot).add(1, 0, 1);
         final int minY = LevelUtils.getChunkMinY(this.levelSettings.getDimension());
 
-        final AsyncLevelWorker asyncLevelWorker = new AsyncLevelWorker(this.level);
+        final AsyncLevelWorker asyncLevelWorker = this.createWorker();
 
         if(!plot.isMerged(0)) {
             final int z = bottom.getZ();
@@ -1091,67 +1106,54 @@ public class PlotManager {
         final Set<Plot> plots = new HashSet<>(this.getConnectedPlots(mainPlot));
         if(finishDone != null) finishDone.addTask();
 
+        final long startTime = System.nanoTime();
         final WhenDone whenDone = new WhenDone(() -> {
             if(finishDone != null) finishDone.done();
 
+            for(Plot plot : plots) this.plotModifications.markPristine(plot.getId());
             this.finishPlotClear(plots);
+            this.plugin.getMetrics().record(MetricTimer.PLOT_CLEAR, startTime);
         });
 
-        final AsyncLevelWorker asyncLevelWorker = new AsyncLevelWorker(this.level);
+        final RoadEditPlanner editPlanner = this.createEditPlanner();
         for(Plot plot : plots) {
-            if(plot.isMerged(1)) this.removeRoadEast(plot, whenDone);
-            if(plot.isMerged(2)) this.removeRoadSouth(plot, whenDone);
-            if(plot.isMerged(5)) this.removeRoadSouthEast(plot, whenDone);
+            if(plot.isMerged(1)) this.planRoad(editPlanner, plot, 1, true);
+            if(plot.isMerged(2)) this.planRoad(editPlanner, plot, 2, true);
+            if(plot.isMerged(5)) this.planRoad(editPlanner, plot, 5, true);
 
             final Vector3 plotPosition = this.getPosByPlot(plot);
-
             final int minX = plotPosition.getFloorX();
             final int minZ = plotPosition.getFloorZ();
-            final int maxX = minX + this.levelSettings.getPlotSize();
-            final int maxZ = minZ + this.levelSettings.getPlotSize();
-            final int minY = LevelUtils.getChunkMinY(this.levelSettings.getDimension());
-            final int maxY = LevelUtils.getChunkMaxY(this.levelSettings.getDimension());
-
-            final int groundHeight = this.levelSettings.getGroundHeight();
-
-            final AxisAlignedBB bb = new SimpleAxisAlignedBB(minX, minY, minZ, maxX, maxY, maxZ);
-
-            for(Entity entity : this.level.getCollidingEntities(bb))
-                if(!(entity instanceof Player)) entity.close();
-
-            for(Block block : this.level.getCollisionBlocks(bb, false, true)) {
-                final BlockEntity blockEntity = block.getLevelBlockEntity();
-                if(blockEntity != null) blockEntity.close();
-            }
-
-            asyncLevelWorker.queueFill(
-                    new BlockVector3(minX, minY, minZ),
-                    new BlockVector3(maxX, minY, maxZ),
-                    this.levelSettings.getFirstLayerState()
-            );
-            asyncLevelWorker.queueFill(
-                    new BlockVector3(minX, minY + 1, minZ),
-                    new BlockVector3(maxX, minY + groundHeight, maxZ),
-                    this.levelSettings.getMiddleLayerState()
-            );
-            asyncLevelWorker.queueFill(
-                    new BlockVector3(minX, minY + groundHeight, minZ),
-                    new BlockVector3(maxX, minY + groundHeight, maxZ),
-                    this.levelSettings.getLastLayerState()
-            );
-            asyncLevelWorker.queueFill(
-                    new BlockVector3(minX, minY + groundHeight + 1, minZ),
-                    new BlockVector3(maxX, maxY, maxZ),
-                    BlockState.AIR
-            );
+            this.planPlotReset(editPlanner, plot.getId(), minX, minZ, minX + this.levelSettings.getPlotSize(), minZ + this.levelSettings.getPlotSize());
         }
 
-        asyncLevelWorker.runQueue(whenDone);
+        editPlanner.execute(whenDone);
 
         whenDone.start();
         return true;
     }
 
+    /**
+     * Plans the reset of the chunks of the plot. If enabled, only the chunks which were modified are reset,
+     * the other chunks still equal the generator output.
+     */
+    private void planPlotReset(RoadEditPlanner editPlanner, PlotId plotId, int minX, int minZ, int maxX, int maxZ) {
+        final boolean skipPristine = this.plugin.isSkipPristinePlotChunks();
+        for(int chunkX = minX >> 4; chunkX <= maxX >> 4; chunkX++) {
+            for(int chunkZ = minZ >> 4; chunkZ <= maxZ >> 4; chunkZ++) {
+                if(skipPristine && !this.plotModifications.isModified(plotId, chunkX, chunkZ)) continue;
+
+                editPlanner.resetPlot(
+                        plotId,
+                        Math.max(minX, chunkX << 4),
+                        Math.max(minZ, chunkZ << 4),
+                        Math.min(maxX, (chunkX << 4) + 15),
+                        Math.min(maxZ, (chunkZ << 4) + 15)
+                );
+            }
+        }
+    }
+
     private void finishPlotClear(Set<Plot> plots) {
         final BlockState claimBlock = this.levelSettings.getClaimPlotState();
         final BlockState wallBlock = this.levelSettings.getWallPlotState();
@@ -1164,42 +1166,7 @@ public class PlotManager {
     }
 
     public ShapeType[] getShapes(int x, int z) {
-        final int totalSize = this.levelSettings.getTotalSize();
-        final int plotSize = this.levelSettings.getPlotSize();
-        final ShapeType[] shapes = new ShapeType[256];
-
-        int posX = x >= 0 ? x % totalSize : totalSize + (x % totalSize);
-        int posZ = z >= 0 ? z % totalSize : totalSize + (z % totalSize);
-
-        final int startX = posX;
-        for(int zBlock = 0; zBlock < 16; zBlock++, posZ++) {
-            if(posZ == totalSize) posZ = 0;
-
-            final ShapeType typeZ;
-            if(posZ < plotSize) typeZ = ShapeType.PLOT;
-            else if(posZ == plotSize || posZ == totalSize - 1) typeZ = ShapeType.WALL;
-            else typeZ = ShapeType.ROAD;
-
-            posX = startX;
-            for(int xBlock = 0; xBlock < 16; xBlock++, posX++) {
-                if(posX == totalSize) posX = 0;
-
-                final ShapeType typeX;
-                if(posX < plotSize) typeX = ShapeType.PLOT;
-                else if(posX == plotSize || posX == totalSize - 1) typeX = ShapeType.WALL;
-                else typeX = ShapeType.ROAD;
-
-                final ShapeType type;
-                if(typeX == typeZ) type = typeX;
-                else if(typeX == ShapeType.PLOT) type = typeZ;
-                else if(typeZ == ShapeType.PLOT) type = typeX;
-                else type = ShapeType.ROAD;
-
-                shapes[(zBlock << 4) | xBlock] = type;
-            }
-        }
-
-        return shapes;
+        return this.generatorContext.getShapes(x, z);
     }
 
     public boolean disposePlot(Plot plot) {
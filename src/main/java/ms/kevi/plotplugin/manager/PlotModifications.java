@@ -0,0 +1,136 @@
+/*
+ * Copyright 2022 KCodeYT
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ms.kevi.plotplugin.manager;
+
+import cn.nukkit.level.Level;
+import cn.nukkit.utils.Config;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import it.unimi.dsi.fastutil.longs.LongSet;
+import ms.kevi.plotplugin.util.PlotId;
+import ms.kevi.plotplugin.util.async.TaskExecutor;
+
+import java.io.File;
+import java.util.*;
+
+/**
+ * The chunks of every plot in which blocks were changed since the plot was generated or reset the last time.
+ * Plot chunks which are not modified still equal the generator output and do not need to be written on a clear.
+ * Plots of worlds which were created before the modifications were tracked are treated as fully modified until they are reset once.
+ *
+ * @author Kevims KCodeYT
+ * @version 1.0
+ */
+public class PlotModifications {
+
+    private final Config config;
+    private final Set<PlotId> trackedPlots;
+    private final Map<PlotId, LongSet> modifiedChunks;
+    private boolean trackAll;
+    private boolean savePending;
+
+    public PlotModifications(File file) {
+        this.config = new Config(file, Config.YAML);
+        this.trackedPlots = new HashSet<>();
+        this.modifiedChunks = new HashMap<>();
+        this.trackAll = this.config.getBoolean("track_all", false);
+
+        for(Object plotObject : this.config.getList("tracked", new ArrayList<>())) {
+            final List<?> plotList = (List<?>) plotObject;
+            this.trackedPlots.add(PlotId.of(((Number) plotList.get(0)).intValue(), ((Number) plotList.get(1)).intValue()));
+        }
+
+        for(Map<String, Object> plotMap : this.config.<List<Map<String, Object>>>get("plots", new ArrayList<>())) {
+            final PlotId plotId = PlotId.of(((Number) plotMap.get("x")).intValue(), ((Number) plotMap.get("z")).intValue());
+            final LongSet chunks = this.modifiedChunks.computeIfAbsent(plotId, id -> new LongOpenHashSet());
+            for(Object chunkObject : (List<?>) plotMap.getOrDefault("chunks", new ArrayList<>())) {
+                final List<?> chunkList = (List<?>) chunkObject;
+                chunks.add(Level.chunkHash(((Number) chunkList.get(0)).intValue(), ((Number) chunkList.get(1)).intValue()));
+            }
+        }
+    }
+
+    /**
+     * Called when the world was generated freshly, so no plot of it has been modified yet.
+     */
+    public synchronized void trackAllPlots() {
+        this.trackAll = true;
+        this.trackedPlots.clear();
+        this.modifiedChunks.clear();
+        this.save();
+    }
+
+    public synchronized boolean isTracked(PlotId plotId) {
+        return this.trackAll || this.trackedPlots.contains(plotId);
+    }
+
+    public synchronized boolean isModified(PlotId plotId, int chunkX, int chunkZ) {
+        if(!this.isTracked(plotId)) return true;
+
+        final LongSet chunks = this.modifiedChunks.get(plotId);
+        return chunks != null && chunks.contains(Level.chunkHash(chunkX, chunkZ));
+    }
+
+    /**
+     * Marks the part of the plot inside the chunk as modified. The file is saved asynchronously
+     * whenever a chunk of a plot gets modified for the first time, so no modification gets lost on a crash.
+     */
+    public synchronized void markModified(PlotId plotId, int chunkX, int chunkZ) {
+        if(!this.isTracked(plotId)) return;
+
+        if(this.modifiedChunks.computeIfAbsent(plotId, id -> new LongOpenHashSet()).add(Level.chunkHash(chunkX, chunkZ)))
+            this.saveAsync();
+    }
+
+    /**
+     * Marks the whole plot as equal to the generator output again, called when the plot gets reset.
+     */
+    public synchronized void markPristine(PlotId plotId) {
+        final boolean changed = this.modifiedChunks.remove(plotId) != null;
+        if((!this.trackAll && this.trackedPlots.add(plotId)) || changed) this.saveAsync();
+    }
+
+    private void saveAsync() {
+        if(this.savePending) return;
+
+        this.savePending = true;
+        TaskExecutor.executeAsync(this::save);
+    }
+
+    public synchronized void save() {
+        this.savePending = false;
+
+        this.config.set("track_all", this.trackAll);
+        this.config.set("tracked", this.trackedPlots.stream().map(plotId -> Arrays.asList(plotId.getX(), plotId.getZ())).toList());
+
+        final List<Map<String, Object>> plotList = new ArrayList<>();
+        for(Map.Entry<PlotId, LongSet> entry : this.modifiedChunks.entrySet()) {
+            final List<List<Integer>> chunkList = new ArrayList<>();
+            for(long chunkKey : entry.getValue())
+                chunkList.add(Arrays.asList(Level.getHashX(chunkKey), Level.getHashZ(chunkKey)));
+
+            final Map<String, Object> plotMap = new LinkedHashMap<>();
+            plotMap.put("x", entry.getKey().getX());
+            plotMap.put("z", entry.getKey().getZ());
+            plotMap.put("chunks", chunkList);
+            plotList.add(plotMap);
+        }
+
+        this.config.set("plots", plotList);
+        this.config.save();
+    }
+
+}
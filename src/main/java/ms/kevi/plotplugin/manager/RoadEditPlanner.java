@@ -0,0 +1,220 @@
+/*
+ * Copyright 2022 KCodeYT
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ms.kevi.plotplugin.manager;
+
+import cn.nukkit.blockstate.BlockState;
+import cn.nukkit.level.Level;
+import cn.nukkit.level.format.FullChunk;
+import it.unimi.dsi.fastutil.longs.Long2ObjectLinkedOpenHashMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import lombok.Value;
+import ms.kevi.plotplugin.generator.PlotGenerator;
+import ms.kevi.plotplugin.metrics.MetricCounter;
+import ms.kevi.plotplugin.metrics.PlotMetrics;
+import ms.kevi.plotplugin.util.LevelUtils;
+import ms.kevi.plotplugin.util.PlotId;
+import ms.kevi.plotplugin.util.PlotLevelSettings;
+import ms.kevi.plotplugin.util.WhenDone;
+import ms.kevi.plotplugin.util.async.AsyncLevelWorker;
+import ms.kevi.plotplugin.util.async.ChunkWriter;
+import ms.kevi.plotplugin.util.async.EntitySweep;
+import ms.kevi.plotplugin.util.async.LevelAccess;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Collects all road, intersection and plot area edits of one operation and executes them as a single job.
+ * The edits are grouped by chunk and every column is only written once, by the last edit covering it,
+ * so merging many plots does one pass over every affected chunk instead of one per road.
+ *
+ * @author Kevims KCodeYT
+ * @version 1.0
+ */
+public class RoadEditPlanner {
+
+    private final PlotManager plotManager;
+    private final LevelAccess levelAccess;
+    private final PlotGenerator plotGenerator;
+    private final PlotMetrics metrics;
+    private final Set<Edit> edits;
+
+    RoadEditPlanner(PlotManager plotManager, LevelAccess levelAccess, PlotGenerator plotGenerator, PlotMetrics metrics) {
+        this.plotManager = plotManager;
+        this.levelAccess = levelAccess;
+        this.plotGenerator = plotGenerator;
+        this.metrics = metrics;
+        this.edits = new LinkedHashSet<>();
+    }
+
+    /**
+     * Removes the road from minX;minZ to maxX;maxZ so it becomes part of the plot ground.
+     */
+    public void openRoad(int minX, int minZ, int maxX, int maxZ) {
+        this.edits.add(new Edit(EditType.OPEN_ROAD, null, minX, minZ, maxX, maxZ, minZ));
+    }
+
+    /**
+     * Builds the road from minX;minZ to maxX;maxZ again, the rows before roadFillingMinZ are filled with the wall filling
+     * instead of the road filling. The road schematic is pasted on top if there is one.
+     */
+    public void closeRoad(int minX, int minZ, int maxX, int maxZ, int roadFillingMinZ) {
+        this.edits.add(new Edit(EditType.CLOSE_ROAD, null, minX, minZ, maxX, maxZ, roadFillingMinZ));
+    }
+
+    /**
+     * Resets the plot ground from minX;minZ to maxX;maxZ. The reset of chunks which are not loaded is deferred
+     * to {@link PendingPlotResets} and applied from the generator when the chunk is loaded the next time.
+     */
+    public void resetPlot(PlotId plotId, int minX, int minZ, int maxX, int maxZ) {
+        this.edits.add(new Edit(EditType.RESET_PLOT, plotId, minX, minZ, maxX, maxZ, minZ));
+    }
+
+    public boolean isEmpty() {
+        return this.edits.isEmpty();
+    }
+
+    public void execute(WhenDone whenDone) {
+        if(this.edits.isEmpty()) return;
+
+        final Long2ObjectMap<List<Edit>> chunkEdits = new Long2ObjectLinkedOpenHashMap<>();
+        for(Edit edit : this.edits) {
+            for(int chunkX = edit.minX >> 4; chunkX <= edit.maxX >> 4; chunkX++)
+                for(int chunkZ = edit.minZ >> 4; chunkZ <= edit.maxZ >> 4; chunkZ++)
+                    chunkEdits.computeIfAbsent(Level.chunkHash(chunkX, chunkZ), key -> new ArrayList<>()).add(edit);
+        }
+
+        final List<int[]> sweepAreas = new ArrayList<>();
+        final AsyncLevelWorker asyncLevelWorker = this.plotManager.createWorker();
+        boolean deferred = false;
+        for(Long2ObjectMap.Entry<List<Edit>> entry : chunkEdits.long2ObjectEntrySet()) {
+            final int chunkX = Level.getHashX(entry.getLongKey());
+            final int chunkZ = Level.getHashZ(entry.getLongKey());
+            final List<Edit> edits = entry.getValue();
+
+            if(this.deferResets(chunkX, chunkZ, edits)) {
+                deferred = true;
+                continue;
+            }
+
+            for(Edit edit : edits) {
+                sweepAreas.add(new int[]{
+                        Math.max(edit.minX, chunkX << 4),
+                        Math.max(edit.minZ, chunkZ << 4),
+                        Math.min(edit.maxX, (chunkX << 4) + 15),
+                        Math.min(edit.maxZ, (chunkZ << 4) + 15)
+                });
+            }
+
+            asyncLevelWorker.queueChunkEdit(chunkX, chunkZ, fullChunk -> this.editChunk(fullChunk, edits));
+        }
+
+        if(deferred) this.plotManager.getPendingResets().saveAsync();
+
+        // The entities are collected once the chunks are loaded and pinned by the worker, so no chunk is loaded on the main thread
+        if(!sweepAreas.isEmpty()) {
+            asyncLevelWorker.queuePreparation(() -> {
+                final EntitySweep entitySweep = new EntitySweep(this.levelAccess);
+                for(int[] area : sweepAreas) entitySweep.sweep(area[0], area[1], area[2], area[3]);
+                entitySweep.close();
+            });
+        }
+
+        this.edits.clear();
+        asyncLevelWorker.runQueue(whenDone);
+    }
+
+    private boolean deferResets(int chunkX, int chunkZ, List<Edit> edits) {
+        if(this.levelAccess.isChunkLoaded(chunkX, chunkZ)) return false;
+        for(Edit edit : edits)
+            if(edit.type != EditType.RESET_PLOT) return false;
+
+        final PendingPlotResets pendingResets = this.plotManager.getPendingResets();
+        for(Edit edit : edits) pendingResets.add(edit.plotId, chunkX, chunkZ);
+        this.metrics.increment(MetricCounter.CHUNKS_RESET_DEFERRED);
+        return true;
+    }
+
+    private long editChunk(FullChunk fullChunk, List<Edit> edits) {
+        final int baseX = fullChunk.getX() << 4;
+        final int baseZ = fullChunk.getZ() << 4;
+
+        final Edit[] columns = new Edit[256];
+        for(Edit edit : edits) {
+            final int minX = Math.max(edit.minX, baseX) - baseX;
+            final int minZ = Math.max(edit.minZ, baseZ) - baseZ;
+            final int maxX = Math.min(edit.maxX, baseX + 15) - baseX;
+            final int maxZ = Math.min(edit.maxZ, baseZ + 15) - baseZ;
+
+            for(int x = minX; x <= maxX; x++)
+                for(int z = minZ; z <= maxZ; z++)
+                    columns[(z << 4) | x] = edit;
+        }
+
+        final PlotLevelSettings levelSettings = this.plotManager.getLevelSettings();
+        final int groundHeight = levelSettings.getGroundHeight();
+        final int minY = LevelUtils.getChunkMinY(levelSettings.getDimension());
+        final int maxY = LevelUtils.getChunkMaxY(levelSettings.getDimension());
+
+        long blocks = 0;
+        for(int index = 0; index < columns.length; index++) {
+            final Edit edit = columns[index];
+            if(edit == null) continue;
+
+            final int x = index & 15;
+            final int z = index >> 4;
+
+            final boolean road = edit.type == EditType.CLOSE_ROAD;
+            final BlockState fillingState = !road ? levelSettings.getMiddleLayerState() :
+                    baseZ + z < edit.roadFillingMinZ ? levelSettings.getWallFillingState() : levelSettings.getRoadFillingState();
+            final BlockState topState = road ? levelSettings.getRoadState() : levelSettings.getLastLayerState();
+
+            if(edit.type != EditType.OPEN_ROAD) blocks += ChunkWriter.setBlock(fullChunk, x, minY, z, levelSettings.getFirstLayerState());
+            blocks += ChunkWriter.fillColumn(fullChunk, x, z, minY + 1, minY + groundHeight - 1, fillingState);
+            blocks += ChunkWriter.setBlock(fullChunk, x, minY + groundHeight, z, topState);
+            blocks += ChunkWriter.fillColumn(fullChunk, x, z, minY + groundHeight + 1, maxY, BlockState.AIR);
+        }
+
+        if(this.plotManager.getPlotSchematic().getSchematic() != null) {
+            for(Edit edit : edits)
+                if(edit.type == EditType.CLOSE_ROAD)
+                    blocks += this.plotGenerator.regenerateChunkWithin(this.plotManager, fullChunk, edit.minX, edit.minZ, edit.maxX, edit.maxZ);
+        }
+
+        return blocks;
+    }
+
+    private enum EditType {
+        OPEN_ROAD,
+        CLOSE_ROAD,
+        RESET_PLOT
+    }
+
+    @Value
+    private static class Edit {
+        EditType type;
+        PlotId plotId;
+        int minX;
+        int minZ;
+        int maxX;
+        int maxZ;
+        int roadFillingMinZ;
+    }
+
+}
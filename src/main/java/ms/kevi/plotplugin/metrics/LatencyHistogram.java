@@ -0,0 +1,101 @@
+/*
+ * Copyright 2022 KCodeYT
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ms.kevi.plotplugin.metrics;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Records durations into buckets with power of two microsecond bounds,
+ * bucket i counts all durations below 2^i microseconds.
+ *
+ * @author Kevims KCodeYT
+ * @version 1.0
+ */
+public class LatencyHistogram {
+
+    private static final int BUCKETS = 40;
+
+    private final LongAdder count = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final AtomicLong maxNanos = new AtomicLong();
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+
+    public void record(long nanos) {
+        if(nanos < 0) nanos = 0;
+
+        this.count.increment();
+        this.totalNanos.add(nanos);
+        this.maxNanos.accumulateAndGet(nanos, Math::max);
+        this.buckets.incrementAndGet(Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(nanos / 1000)));
+    }
+
+    public long getCount() {
+        return this.count.sum();
+    }
+
+    public double getTotalMillis() {
+        return this.totalNanos.sum() / 1_000_000D;
+    }
+
+    public double getAverageMillis() {
+        final long count = this.count.sum();
+        return count == 0 ? 0 : this.totalNanos.sum() / (double) count / 1_000_000D;
+    }
+
+    public double getMaxMillis() {
+        return this.maxNanos.get() / 1_000_000D;
+    }
+
+    /**
+     * Returns the upper bound of the bucket containing the given percentile.
+     */
+    public double getPercentileMillis(double percentile) {
+        final long count = this.count.sum();
+        if(count == 0) return 0;
+
+        final long target = (long) Math.ceil(count * percentile);
+        long seen = 0;
+        for(int i = 0; i < BUCKETS; i++) {
+            seen += this.buckets.get(i);
+            if(seen >= target) return Math.min((1L << i) / 1000D, this.getMaxMillis());
+        }
+
+        return this.getMaxMillis();
+    }
+
+    public Map<String, Long> getBuckets() {
+        final Map<String, Long> buckets = new LinkedHashMap<>();
+        for(int i = 0; i < BUCKETS; i++) {
+            final long value = this.buckets.get(i);
+            if(value > 0) buckets.put("<" + (1L << i) + "us", value);
+        }
+
+        return buckets;
+    }
+
+    public void reset() {
+        this.count.reset();
+        this.totalNanos.reset();
+        this.maxNanos.set(0);
+        for(int i = 0; i < BUCKETS; i++) this.buckets.set(i, 0);
+    }
+
+}
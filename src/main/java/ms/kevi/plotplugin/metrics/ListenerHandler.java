@@ -0,0 +1,44 @@
+/*
+ * Copyright 2022 KCodeYT
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ms.kevi.plotplugin.metrics;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * The handlers of the plot listener which can be profiled.
+ *
+ * @author Kevims KCodeYT
+ * @version 1.0
+ */
+@Getter
+@RequiredArgsConstructor
+public enum ListenerHandler {
+
+    MOVE("move"),
+    PLACE("place"),
+    BREAK("break"),
+    FLOW("flow"),
+    UPDATE("update"),
+    PISTON("piston"),
+    GROW("grow"),
+    DAMAGE("damage"),
+    DAMAGE_BY_ENTITY("damage_by_entity");
+
+    private final String name;
+
+}
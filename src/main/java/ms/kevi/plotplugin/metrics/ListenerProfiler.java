@@ -0,0 +1,160 @@
+/*
+ * Copyright 2022 KCodeYT
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ms.kevi.plotplugin.metrics;
+
+import cn.nukkit.event.Cancellable;
+import cn.nukkit.event.Event;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Counts the invocations and cancellations of the listener handlers and measures
+ * the duration of every 16th invocation. Disabled by default, the listener only
+ * calls {@link #profile(ListenerHandler, Event, Consumer)} while it is enabled.
+ * The plot manager lookups of the listener are counted while it is enabled as well.
+ *
+ * @author Kevims KCodeYT
+ * @version 1.0
+ */
+public class ListenerProfiler {
+
+    private static final int SAMPLE_MASK = 15;
+
+    @Getter
+    @Setter
+    private volatile boolean enabled;
+
+    private final HandlerStats[] stats;
+    private final LongAdder plotManagerLookups;
+    private final LongAdder plotManagerLookupMisses;
+
+    public ListenerProfiler() {
+        this.plotManagerLookups = new LongAdder();
+        this.plotManagerLookupMisses = new LongAdder();
+        this.stats = new HandlerStats[ListenerHandler.values().length];
+        for(int i = 0; i < this.stats.length; i++) this.stats[i] = new HandlerStats();
+    }
+
+    public <E extends Event> void profile(ListenerHandler handler, E event, Consumer<E> consumer) {
+        final HandlerStats stats = this.stats[handler.ordinal()];
+        final boolean cancellable = event instanceof Cancellable;
+        final boolean wasCancelled = cancellable && event.isCancelled();
+
+        if((stats.invocations.getAndIncrement() & SAMPLE_MASK) == 0) {
+            final long startTime = System.nanoTime();
+            consumer.accept(event);
+            stats.sample(System.nanoTime() - startTime);
+        } else {
+            consumer.accept(event);
+        }
+
+        if(cancellable && !wasCancelled && event.isCancelled()) stats.cancellations.increment();
+    }
+
+    /**
+     * Counts a plot manager lookup of the listener, found is false if the level is no plot world.
+     */
+    public void recordLookup(boolean found) {
+        this.plotManagerLookups.increment();
+        if(!found) this.plotManagerLookupMisses.increment();
+    }
+
+    public long getPlotManagerLookups() {
+        return this.plotManagerLookups.sum();
+    }
+
+    public long getPlotManagerLookupMisses() {
+        return this.plotManagerLookupMisses.sum();
+    }
+
+    public long getInvocations(ListenerHandler handler) {
+        return this.stats[handler.ordinal()].invocations.get();
+    }
+
+    public double getCancelRate(ListenerHandler handler) {
+        final HandlerStats stats = this.stats[handler.ordinal()];
+        final long invocations = stats.invocations.get();
+        return invocations == 0 ? 0 : stats.cancellations.sum() / (double) invocations;
+    }
+
+    public double getAverageNanos(ListenerHandler handler) {
+        final HandlerStats stats = this.stats[handler.ordinal()];
+        final long samples = stats.samples.sum();
+        return samples == 0 ? 0 : stats.sampledNanos.sum() / (double) samples;
+    }
+
+    public void reset() {
+        for(HandlerStats stats : this.stats) stats.reset();
+        this.plotManagerLookups.reset();
+        this.plotManagerLookupMisses.reset();
+    }
+
+    public Map<String, Object> toMap() {
+        final Map<String, Object> map = new LinkedHashMap<>();
+        map.put("enabled", this.enabled);
+
+        final Map<String, Object> handlers = new LinkedHashMap<>();
+        for(ListenerHandler handler : ListenerHandler.values()) {
+            final HandlerStats stats = this.stats[handler.ordinal()];
+            final Map<String, Object> handlerMap = new LinkedHashMap<>();
+            handlerMap.put("invocations", stats.invocations.get());
+            handlerMap.put("cancellations", stats.cancellations.sum());
+            handlerMap.put("cancel_rate", this.getCancelRate(handler));
+            handlerMap.put("samples", stats.samples.sum());
+            handlerMap.put("avg_ns", this.getAverageNanos(handler));
+            handlerMap.put("max_ns", stats.maxNanos.get());
+            handlerMap.put("estimated_total_ms", this.getAverageNanos(handler) * stats.invocations.get() / 1_000_000D);
+            handlers.put(handler.getName(), handlerMap);
+        }
+
+        map.put("handlers", handlers);
+        map.put("plot_manager_lookups", this.plotManagerLookups.sum());
+        map.put("plot_manager_lookup_misses", this.plotManagerLookupMisses.sum());
+        return map;
+    }
+
+    private static class HandlerStats {
+
+        private final AtomicLong invocations = new AtomicLong();
+        private final LongAdder cancellations = new LongAdder();
+        private final LongAdder samples = new LongAdder();
+        private final LongAdder sampledNanos = new LongAdder();
+        private final AtomicLong maxNanos = new AtomicLong();
+
+        private void sample(long nanos) {
+            this.samples.increment();
+            this.sampledNanos.add(nanos);
+            this.maxNanos.accumulateAndGet(nanos, Math::max);
+        }
+
+        private void reset() {
+            this.invocations.set(0);
+            this.cancellations.reset();
+            this.samples.reset();
+            this.sampledNanos.reset();
+            this.maxNanos.set(0);
+        }
+
+    }
+
+}
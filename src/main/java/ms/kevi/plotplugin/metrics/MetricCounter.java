@@ -0,0 +1,43 @@
+/*
+ * Copyright 2022 KCodeYT
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ms.kevi.plotplugin.metrics;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * @author Kevims KCodeYT
+ * @version 1.0
+ */
+@Getter
+@RequiredArgsConstructor
+public enum MetricCounter {
+
+    BLOCKS_WRITTEN("blocks_written"),
+    CHUNKS_RESENT("chunks_resent"),
+    BLOCK_UPDATES_SENT("block_updates_sent"),
+    CHUNKS_GENERATED("chunks_generated"),
+    CHUNKS_REGENERATED("chunks_regenerated"),
+    CHUNKS_RESET_DEFERRED("chunks_reset_deferred"),
+    CHUNKS_SAVE_SKIPPED("chunks_save_skipped"),
+    PLAYER_NAME_HITS("player_name_hits"),
+    PLAYER_NAME_MISSES("player_name_misses"),
+    PLAYER_NAME_RESOLUTIONS_REJECTED("player_name_resolutions_rejected");
+
+    private final String name;
+
+}
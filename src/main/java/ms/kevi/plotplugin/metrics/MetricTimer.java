@@ -0,0 +1,45 @@
+/*
+ * Copyright 2022 KCodeYT
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ms.kevi.plotplugin.metrics;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * @author Kevims KCodeYT
+ * @version 1.0
+ */
+@Getter
+@RequiredArgsConstructor
+public enum MetricTimer {
+
+    PLOT_CLEAR("plot_clear"),
+    PLOT_MERGE("plot_merge"),
+    PLOT_UNLINK("plot_unlink"),
+    ROAD_REGENERATION("road_regeneration"),
+    CHUNK_GENERATION("chunk_generation"),
+    WORKER_JOB("worker_job"),
+    PLOTS_SAVE("plots_save"),
+    PLAYERS_FLUSH("players_flush"),
+    SCHEMATIC_LOAD("schematic_load"),
+    WORLD_LOAD("world_load"),
+    SCHEMATIC_SAVE("schematic_save"),
+    PLAYER_NAME_RESOLVE("player_name_resolve");
+
+    private final String name;
+
+}
@@ -0,0 +1,160 @@
+/*
+ * Copyright 2022 KCodeYT
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ms.kevi.plotplugin.metrics;
+
+import cn.nukkit.utils.Config;
+import lombok.Getter;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters and latency histograms of the plot operations.
+ *
+ * @author Kevims KCodeYT
+ * @version 1.0
+ */
+public class PlotMetrics {
+
+    private final LongAdder[] counters;
+    private final LatencyHistogram[] timers;
+    private final AtomicInteger queuedJobs;
+    private final AtomicInteger queuedOperations;
+    @Getter
+    private final ListenerProfiler listenerProfiler;
+    private volatile long resetTime;
+
+    public PlotMetrics() {
+        this.counters = new LongAdder[MetricCounter.values().length];
+        this.timers = new LatencyHistogram[MetricTimer.values().length];
+        this.queuedJobs = new AtomicInteger();
+        this.queuedOperations = new AtomicInteger();
+        this.listenerProfiler = new ListenerProfiler();
+        this.resetTime = System.currentTimeMillis();
+
+        for(int i = 0; i < this.counters.length; i++) this.counters[i] = new LongAdder();
+        for(int i = 0; i < this.timers.length; i++) this.timers[i] = new LatencyHistogram();
+    }
+
+    public void increment(MetricCounter counter) {
+        this.counters[counter.ordinal()].increment();
+    }
+
+    public void add(MetricCounter counter, long value) {
+        this.counters[counter.ordinal()].add(value);
+    }
+
+    public long get(MetricCounter counter) {
+        return this.counters[counter.ordinal()].sum();
+    }
+
+    /**
+     * Records the time passed since the given {@link System#nanoTime()}.
+     */
+    public void record(MetricTimer timer, long startTime) {
+        this.timers[timer.ordinal()].record(System.nanoTime() - startTime);
+    }
+
+    public void time(MetricTimer timer, Runnable runnable) {
+        final long startTime = System.nanoTime();
+        try {
+            runnable.run();
+        } finally {
+            this.record(timer, startTime);
+        }
+    }
+
+    public LatencyHistogram get(MetricTimer timer) {
+        return this.timers[timer.ordinal()];
+    }
+
+    public void jobQueued(int operations) {
+        this.queuedJobs.incrementAndGet();
+        this.queuedOperations.addAndGet(operations);
+    }
+
+    public void jobFinished(int operations) {
+        this.queuedJobs.decrementAndGet();
+        this.queuedOperations.addAndGet(-operations);
+    }
+
+    public int getQueuedJobs() {
+        return this.queuedJobs.get();
+    }
+
+    public int getQueuedOperations() {
+        return this.queuedOperations.get();
+    }
+
+    public void reset() {
+        for(LongAdder counter : this.counters) counter.reset();
+        for(LatencyHistogram timer : this.timers) timer.reset();
+        this.listenerProfiler.reset();
+        this.resetTime = System.currentTimeMillis();
+    }
+
+    public Map<String, Object> toMap() {
+        final Map<String, Object> map = new LinkedHashMap<>();
+        map.put("time", System.currentTimeMillis());
+        map.put("since", this.resetTime);
+
+        final Map<String, Object> counters = new LinkedHashMap<>();
+        for(MetricCounter counter : MetricCounter.values())
+            counters.put(counter.getName(), this.get(counter));
+        map.put("counters", counters);
+
+        final Map<String, Object> queue = new LinkedHashMap<>();
+        queue.put("jobs", this.getQueuedJobs());
+        queue.put("operations", this.getQueuedOperations());
+        map.put("queue", queue);
+
+        final Map<String, Object> timers = new LinkedHashMap<>();
+        for(MetricTimer timer : MetricTimer.values()) {
+            final LatencyHistogram histogram = this.get(timer);
+            final Map<String, Object> timerMap = new LinkedHashMap<>();
+            timerMap.put("count", histogram.getCount());
+            timerMap.put("total_ms", histogram.getTotalMillis());
+            timerMap.put("avg_ms", histogram.getAverageMillis());
+            timerMap.put("p50_ms", histogram.getPercentileMillis(0.5));
+            timerMap.put("p95_ms", histogram.getPercentileMillis(0.95));
+            timerMap.put("p99_ms", histogram.getPercentileMillis(0.99));
+            timerMap.put("max_ms", histogram.getMaxMillis());
+            timerMap.put("histogram", histogram.getBuckets());
+            timers.put(timer.getName(), timerMap);
+        }
+        map.put("timers", timers);
+        map.put("listeners", this.listenerProfiler.toMap());
+
+        return map;
+    }
+
+    public void dump(File file) throws IOException {
+        final File tmpFile = new File(file.getPath() + ".tmp");
+        final Config config = new Config(Config.JSON);
+        config.setAll(new LinkedHashMap<>(this.toMap()));
+        if(!config.save(tmpFile)) throw new IOException("Could not write " + tmpFile);
+
+        Files.move(tmpFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+}
@@ -35,6 +35,7 @@ import ms.kevi.plotplugin.schematic.format.SchematicSerializer;
 import ms.kevi.plotplugin.schematic.format.SchematicSerializers;
 import ms.kevi.plotplugin.util.Allowed;
 import ms.kevi.plotplugin.util.ShapeType;
+import ms.kevi.plotplugin.util.async.ChunkWriter;
 
 import java.io.File;
 import java.io.FileInputStream;
@@ -81,7 +82,11 @@ public class Schematic {
         this.blockEntities.put(blockVector3, new SchematicBlockEntity(type, compoundTag));
     }
 
-    public void buildInChunk(Vector3 start, FullChunk fullChunk, ShapeType[] shapes, Allowed<ShapeType> allowedShapes, Integer minX, Integer minZ, Integer maxX, Integer maxZ) {
+    /**
+     * @return the amount of block states which were changed
+     */
+    public int buildInChunk(Vector3 start, FullChunk fullChunk, ShapeType[] shapes, Allowed<ShapeType> allowedShapes, Integer minX, Integer minZ, Integer maxX, Integer maxZ) {
+        int changed = 0;
         final int startX = start.getFloorX();
         final int startY = start.getFloorY();
         final int startZ = start.getFloorZ();
@@ -103,8 +108,8 @@ public class Schematic {
                 final ShapeType shapeType = shapes[(bZ << 4) | bX];
                 if(allowedShapes.isDisallowed(shapeType)) continue;
 
-                fullChunk.setBlockStateAtLayer(bX, y, bZ, 0, schematicBlock.getLayer0());
-                fullChunk.setBlockStateAtLayer(bX, y, bZ, 1, schematicBlock.getLayer1());
+                changed += ChunkWriter.setBlockState(fullChunk, bX, y, bZ, 0, schematicBlock.getLayer0());
+                changed += ChunkWriter.setBlockState(fullChunk, bX, y, bZ, 1, schematicBlock.getLayer1());
             }
         }
 
@@ -124,17 +129,20 @@ public class Schematic {
                 if(allowedShapes.isDisallowed(shapeType)) continue;
 
                 try {
-                    BlockEntity.createBlockEntity(blockEntity.getType(), fullChunk, blockEntity.getCompoundTag().
+                    BlockEntity.createBlockEntity(blockEntity.getType(), fullChunk, blockEntity.getCompoundTag().copy().
                             putString("id", blockEntity.getType()).
                             putInt("x", x).
                             putInt("y", y).
                             putInt("z", z)
                     );
+                    changed++;
                 } catch(Exception e) {
                     PlotPlugin.INSTANCE.getLogger().error("Could not create block entity " + blockEntity.getType() + " in Chunk[" + fullChunk.getX() + ", " + fullChunk.getZ() + "] at " + x + ":" + y + ":" + z + "!", e);
                 }
             }
         }
+
+        return changed;
     }
 
     public synchronized void init(File file) {
@@ -0,0 +1,94 @@
+/*
+ * Copyright 2022 KCodeYT
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ms.kevi.plotplugin.util;
+
+import cn.nukkit.Player;
+import ms.kevi.plotplugin.PlotPlugin;
+import ms.kevi.plotplugin.lang.TranslationKey;
+
+/**
+ * A flag which is either enabled or disabled. Boolean flags are not kept in the config map of the plot
+ * but in two bitsets of it, one marking the flags which were set and one holding their values,
+ * so evaluating a flag is a bit test.
+ *
+ * @author Kevims KCodeYT
+ * @version 1.0
+ */
+public class BooleanFlag extends PlotFlag<Boolean> {
+
+    private long mask;
+
+    public BooleanFlag(String name, boolean defaultValue) {
+        super(name, Boolean.class, defaultValue);
+    }
+
+    public BooleanFlag(String name, boolean defaultValue, TranslationKey infoTranslationKey, TranslationKey configTranslationKey) {
+        super(name, Boolean.class, defaultValue, infoTranslationKey, configTranslationKey);
+    }
+
+    public BooleanFlag(String name, boolean defaultValue, TranslationKey infoTranslationKey, TranslationKey configTranslationKey, TranslationKey helpTranslationKey) {
+        super(name, Boolean.class, defaultValue, infoTranslationKey, configTranslationKey, helpTranslationKey);
+    }
+
+    public BooleanFlag(String name, boolean defaultValue, FlagMessage infoMessage, FlagMessage configMessage, FlagMessage helpMessage) {
+        super(name, Boolean.class, defaultValue, infoMessage, configMessage, helpMessage);
+    }
+
+    void setBit(int bit) {
+        this.mask = 1L << bit;
+    }
+
+    long getMask() {
+        return this.mask;
+    }
+
+    public boolean test(Plot plot) {
+        return (plot.getFlagMask() & this.mask) != 0 ? (plot.getFlagValues() & this.mask) != 0 : this.getDefaultValue();
+    }
+
+    @Override
+    public String formatValue(Player player, Boolean value) {
+        return PlotPlugin.INSTANCE.getLanguage().translate(player, value ? TranslationKey.ACTIVATED : TranslationKey.DEACTIVATED);
+    }
+
+    @Override
+    public Boolean get(Plot plot) {
+        return this.test(plot);
+    }
+
+    @Override
+    void setValue(Plot plot, Boolean value) {
+        plot.setFlagBits(this.mask, value);
+    }
+
+    @Override
+    void load(Plot plot) {
+        final Object value = plot.getConfig().remove(this.getName());
+        if(value instanceof Boolean) plot.setFlagBits(this.mask, (Boolean) value);
+    }
+
+    @Override
+    public boolean isSet(Plot plot) {
+        return (plot.getFlagMask() & this.mask) != 0;
+    }
+
+    @Override
+    Object getSavedValue(Plot plot) {
+        return this.isSet(plot) ? this.test(plot) : null;
+    }
+
+}
@@ -0,0 +1,46 @@
+/*
+ * Copyright 2022 KCodeYT
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ms.kevi.plotplugin.util;
+
+import cn.nukkit.Player;
+import ms.kevi.plotplugin.PlotPlugin;
+import ms.kevi.plotplugin.lang.TranslationKey;
+
+/**
+ * A message of a {@link PlotFlag} shown to a player, the first parameter is the formatted value of the flag.
+ * Flags of other plugins can supply their own messages without a translation of this plugin.
+ *
+ * @author Kevims KCodeYT
+ * @version 1.0
+ */
+@FunctionalInterface
+public interface FlagMessage {
+
+    String get(Player player, Object... params);
+
+    static FlagMessage of(TranslationKey translationKey) {
+        return translationKey == null ? null : (player, params) -> PlotPlugin.INSTANCE.getLanguage().translate(player, translationKey, params);
+    }
+
+    /**
+     * @param message the message in which {0} is replaced with the value of the flag
+     */
+    static FlagMessage of(String message) {
+        return message == null ? null : (player, params) -> params.length == 0 ? message : message.replace("{0}", String.valueOf(params[0]));
+    }
+
+}
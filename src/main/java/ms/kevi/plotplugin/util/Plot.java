@@ -17,6 +17,7 @@
 package ms.kevi.plotplugin.util;
 
 import cn.nukkit.math.BlockVector3;
+import lombok.AccessLevel;
 import lombok.EqualsAndHashCode;
 import lombok.Getter;
 import lombok.Setter;
@@ -40,10 +41,12 @@ public class Plot {
         plot.helpers.addAll((Plot.<Collection<? extends String>>getOrDefault(plotMap.get("helpers"), new ArrayList<>())).stream().map(UUID::fromString).toList());
         plot.deniedPlayers.addAll((Plot.<Collection<? extends String>>getOrDefault(plotMap.get("denied"), new ArrayList<>())).stream().map(UUID::fromString).toList());
         plot.config.putAll(Plot.<Map<String, Object>>getOrDefault(plotMap.get("config"), new HashMap<>()));
+        for(PlotFlag<?> flag : PlotFlags.values()) flag.load(plot);
         final List<Integer> homePositionList = Plot.<List<Integer>>getOrDefault(plotMap.get("home-position"), new ArrayList<>());
         plot.homePosition = homePositionList.size() == 3 ? new BlockVector3(homePositionList.get(0), homePositionList.get(1), homePositionList.get(2)) : null;
-        for(int i = 0; i < plot.mergedPlots.length; i++)
-            plot.mergedPlots[i] = (Boolean) ((List<?>) plotMap.getOrDefault("merges", new ArrayList<>())).get(i);
+        final List<?> mergesList = (List<?>) plotMap.getOrDefault("merges", new ArrayList<>());
+        for(int i = 0; i < 4 && i < mergesList.size(); i++)
+            if(Boolean.TRUE.equals(mergesList.get(i))) plot.merges |= 1 << i;
         return plot;
     }
 
@@ -56,6 +59,8 @@ public class Plot {
         return o == null ? defaultValue : (C) o;
     }
 
+    private static final int DIRECT_MERGES = 0x0F;
+
     private final PlotManager manager;
     private final PlotId id;
 
@@ -65,7 +70,21 @@ public class Plot {
     private final Map<String, Object> config;
     private BlockVector3 homePosition;
 
-    private final Boolean[] mergedPlots;
+    /**
+     * Bit n is set if the plot is merged in direction n. The diagonal bits 4-7 are derived
+     * from the direct ones and only change with {@link #updateDiagonalMerges()}.
+     */
+    @Setter(AccessLevel.NONE)
+    private byte merges;
+    /**
+     * The bits of the {@link BooleanFlag}s which are set for this plot and their values.
+     */
+    @Getter(AccessLevel.PACKAGE)
+    @Setter(AccessLevel.NONE)
+    private long flagMask;
+    @Getter(AccessLevel.PACKAGE)
+    @Setter(AccessLevel.NONE)
+    private long flagValues;
     private Plot origin;
 
     public Plot(PlotManager manager, PlotId id, UUID owner) {
@@ -76,13 +95,18 @@ public class Plot {
         this.helpers = new ArrayList<>();
         this.deniedPlayers = new ArrayList<>();
         this.config = new HashMap<>();
-        Arrays.fill(this.mergedPlots = new Boolean[4], false);
     }
 
     public boolean hasOwner() {
         return this.owner != null;
     }
 
+    public void setOwner(UUID owner) {
+        final UUID oldOwner = this.owner;
+        this.owner = owner;
+        this.manager.updateOwnerIndex(this, oldOwner);
+    }
+
     public boolean isOwner(UUID playerId) {
         return this.owner != null && this.owner.equals(playerId);
     }
@@ -91,6 +115,7 @@ public class Plot {
         if(this.isHelper(playerId)) return false;
 
         this.manager.getConnectedPlots(this).forEach(plot -> plot.addHelper0(playerId));
+        this.manager.invalidateAccess();
         return true;
     }
 
@@ -101,6 +126,7 @@ public class Plot {
     public boolean removeHelper(UUID playerId) {
         final boolean wasHelper = this.isHelper(playerId);
         this.manager.getConnectedPlots(this).forEach(plot -> plot.removeHelper0(playerId));
+        this.manager.invalidateAccess();
         return wasHelper;
     }
 
@@ -120,6 +146,7 @@ public class Plot {
         if(this.isDenied(playerId)) return false;
 
         this.manager.getConnectedPlots(this).forEach(plot -> plot.denyPlayer0(playerId));
+        this.manager.invalidateAccess();
         return true;
     }
 
@@ -130,6 +157,7 @@ public class Plot {
     public boolean unDenyPlayer(UUID playerId) {
         final boolean wasDenied = this.isDenied(playerId);
         this.manager.getConnectedPlots(this).forEach(plot -> plot.unDenyPlayer0(playerId));
+        this.manager.invalidateAccess();
         return wasDenied;
     }
 
@@ -149,32 +177,81 @@ public class Plot {
         this.config.put(name, object);
     }
 
+    public <T> T getFlag(PlotFlag<T> flag) {
+        return flag.get(this);
+    }
+
+    /**
+     * Sets the flag for this plot and all plots merged with it, null resets it to the default value.
+     */
+    public <T> void setFlag(PlotFlag<T> flag, T value) {
+        this.manager.getConnectedPlots(this).forEach(plot -> flag.setValue(plot, value));
+    }
+
+    void setFlagBits(long mask, Boolean value) {
+        if(value == null) {
+            this.flagMask &= ~mask;
+            this.flagValues &= ~mask;
+            return;
+        }
+
+        this.flagMask |= mask;
+        if(value) this.flagValues |= mask;
+        else this.flagValues &= ~mask;
+    }
+
+    /**
+     * Takes over the value saved in the config of this plot for a flag which was registered after the plot was loaded.
+     */
+    public void loadFlag(PlotFlag<?> flag) {
+        flag.load(this);
+    }
+
+    /**
+     * Gives both plots the boolean flags set in either of them, the values of this plot win if both have a flag set.
+     */
+    public void mergeFlags(Plot other) {
+        final long flagMask = this.flagMask | other.flagMask;
+        final long flagValues = (this.flagValues & this.flagMask) | (other.flagValues & other.flagMask & ~this.flagMask);
+        this.flagMask = other.flagMask = flagMask;
+        this.flagValues = other.flagValues = flagValues;
+    }
+
     public boolean hasNoMerges() {
-        for(boolean merged : this.mergedPlots)
-            if(merged) return false;
-        return true;
+        return (this.merges & DIRECT_MERGES) == 0;
     }
 
     public boolean isFullyMerged() {
-        for(boolean merged : this.mergedPlots)
-            if(!merged) return false;
-        return true;
+        return (this.merges & DIRECT_MERGES) == DIRECT_MERGES;
     }
 
     public boolean isMerged(int direction) {
-        if(direction < 0) return false;
-        if(direction < 4) return this.mergedPlots[direction];
-        if(direction < 8) {
+        return direction >= 0 && direction < 8 && (this.merges & (1 << direction)) != 0;
+    }
+
+    /**
+     * Sets the merge in one of the direct directions 0-3, the diagonal merges of the surrounding
+     * plots have to be updated afterwards using {@link PlotManager#updateDiagonalMerges(Collection)}.
+     */
+    public void setMerged(int direction, boolean bool) {
+        if(bool) this.merges |= 1 << direction;
+        else this.merges &= ~(1 << direction);
+    }
+
+    public void updateDiagonalMerges() {
+        int merges = this.merges & DIRECT_MERGES;
+        for(int direction = 4; direction < 8; direction++) {
             final int f = direction - 4;
             final int s = direction == 7 ? 0 : direction - 3;
-            return this.isMerged(f) && this.isMerged(s) && this.manager.getPlotById(this.getRelative(f)).isMerged(s) && this.manager.getPlotById(this.getRelative(s)).isMerged(f);
-        }
+            if(!this.isMerged(f) || !this.isMerged(s)) continue;
 
-        return false;
-    }
+            final Plot first = this.manager.getExistingPlot(this.getRelative(f));
+            final Plot second = this.manager.getExistingPlot(this.getRelative(s));
+            if(first != null && first.isMerged(s) && second != null && second.isMerged(f))
+                merges |= 1 << direction;
+        }
 
-    public void setMerged(int direction, boolean bool) {
-        this.mergedPlots[direction] = bool;
+        this.merges = (byte) merges;
     }
 
     public PlotId getRelative(int direction) {
@@ -208,15 +285,7 @@ public class Plot {
             return;
         }
 
-        final Set<Plot> connectedPlots = this.manager.getConnectedPlots(this);
-        Plot min = this;
-        for(Plot plot : connectedPlots) {
-            if(plot.id.getZ() < min.id.getZ() || plot.id.getZ() == min.id.getZ() && plot.id.getX() < min.id.getX())
-                min = plot;
-        }
-
-        for(Plot plot : connectedPlots) plot.origin = min;
-        this.origin = min;
+        this.manager.updateOrigins(Collections.singleton(this));
     }
 
     public Plot getBasePlot() {
@@ -234,10 +303,8 @@ public class Plot {
         if(this.owner != null) return false;
         if(!this.helpers.isEmpty()) return false;
         if(!this.deniedPlayers.isEmpty()) return false;
-        if(!this.config.isEmpty()) return false;
-        for(boolean mergedPlot : this.mergedPlots)
-            if(mergedPlot) return false;
-        return true;
+        if(!this.config.isEmpty() || this.flagMask != 0) return false;
+        return this.merges == 0;
     }
 
     public Map<String, Object> toMap() {
@@ -248,9 +315,12 @@ public class Plot {
         map.put("owner", this.owner == null ? "null" : this.owner.toString());
         map.put("helpers", this.helpers.stream().map(UUID::toString).collect(Collectors.toList()));
         map.put("denied", this.deniedPlayers.stream().map(UUID::toString).collect(Collectors.toList()));
-        map.put("config", this.config);
+        final Map<String, Object> config = new HashMap<>(this.config);
+        for(PlotFlag<?> flag : PlotFlags.values())
+            if(flag instanceof BooleanFlag && flag.isSet(this)) config.put(flag.getName(), flag.getSavedValue(this));
+        map.put("config", config);
         map.put("home-position", this.homePosition == null ? Collections.emptyList() : Arrays.asList(this.homePosition.getX(), this.homePosition.getY(), this.homePosition.getZ()));
-        map.put("merges", this.mergedPlots);
+        map.put("merges", Arrays.asList(this.isMerged(0), this.isMerged(1), this.isMerged(2), this.isMerged(3)));
 
         return map;
     }
@@ -23,7 +23,9 @@ import ms.kevi.plotplugin.lang.TranslationKey;
 /**
  * @author Kevims KCodeYT
  * @version 1.0
+ * @deprecated replaced by the typed flags of {@link PlotFlags}, this class only delegates to them
  */
+@Deprecated
 @Getter
 @AllArgsConstructor
 public class PlotConfig {
@@ -34,25 +36,22 @@ public class PlotConfig {
     private final TranslationKey defaultTranslationKey;
 
     public Object get(Plot plot) {
-        Object o = plot.getConfigValue(this.saveName);
-        if(o == null) {
-            plot.setConfigValue(this.saveName, this.defaultValue);
-            o = this.defaultValue;
-        }
-        return o;
+        final PlotFlag<?> flag = PlotFlags.get(this.saveName);
+        if(flag != null) return flag.get(plot);
+
+        final Object o = plot.getConfigValue(this.saveName);
+        return o == null ? this.defaultValue : o;
     }
 
     public String getAsString(Plot plot) {
-        Object o = plot.getConfigValue(this.saveName);
-        if(o == null) {
-            plot.setConfigValue(this.saveName, this.defaultValue);
-            o = this.defaultValue;
-        }
-        return o.toString();
+        return this.get(plot).toString();
     }
 
+    @SuppressWarnings("unchecked")
     public void set(Plot plot, Object value) {
-        plot.setConfigValue(this.saveName, value == null ? this.defaultValue : value);
+        final PlotFlag<Object> flag = (PlotFlag<Object>) PlotFlags.get(this.saveName);
+        if(flag != null) plot.setFlag(flag, value);
+        else plot.setConfigValue(this.saveName, value == null ? this.defaultValue : value);
     }
 
     @Getter
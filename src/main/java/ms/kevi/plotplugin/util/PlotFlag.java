@@ -0,0 +1,140 @@
+/*
+ * Copyright 2022 KCodeYT
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ms.kevi.plotplugin.util;
+
+import cn.nukkit.Player;
+import lombok.Getter;
+import ms.kevi.plotplugin.lang.TranslationKey;
+
+/**
+ * A typed setting of a plot, registered in {@link PlotFlags}. The value is stored in the config of the plot,
+ * plots without a value use the default value without it being written into the plot.
+ *
+ * @author Kevims KCodeYT
+ * @version 1.0
+ */
+@Getter
+public class PlotFlag<T> {
+
+    private final String name;
+    private final Class<T> type;
+    private final T defaultValue;
+    /**
+     * The line shown by /plot info or null if the flag is not shown.
+     */
+    private final FlagMessage infoMessage;
+    /**
+     * The message sent when the flag is changed with /plot setting or null if it can not be changed by players.
+     */
+    private final FlagMessage configMessage;
+    /**
+     * The line describing the flag in the help of /plot setting or null if it is not listed there.
+     */
+    private final FlagMessage helpMessage;
+
+    public PlotFlag(String name, Class<T> type, T defaultValue) {
+        this(name, type, defaultValue, (FlagMessage) null, null, null);
+    }
+
+    public PlotFlag(String name, Class<T> type, T defaultValue, TranslationKey infoTranslationKey, TranslationKey configTranslationKey) {
+        this(name, type, defaultValue, infoTranslationKey, configTranslationKey, null);
+    }
+
+    public PlotFlag(String name, Class<T> type, T defaultValue, TranslationKey infoTranslationKey, TranslationKey configTranslationKey, TranslationKey helpTranslationKey) {
+        this(name, type, defaultValue, FlagMessage.of(infoTranslationKey), FlagMessage.of(configTranslationKey), FlagMessage.of(helpTranslationKey));
+    }
+
+    public PlotFlag(String name, Class<T> type, T defaultValue, FlagMessage infoMessage, FlagMessage configMessage, FlagMessage helpMessage) {
+        this.name = name;
+        this.type = type;
+        this.defaultValue = defaultValue;
+        this.infoMessage = infoMessage;
+        this.configMessage = configMessage;
+        this.helpMessage = helpMessage;
+    }
+
+    /**
+     * Parses a value entered by a player with /plot setting.
+     *
+     * @return the value or null if the input is no valid value of this flag
+     */
+    public T parse(String input) {
+        try {
+            final Object value;
+            if(this.type == Boolean.class) value = Utils.parseBoolean(input);
+            else if(this.type == Integer.class) value = Integer.parseInt(input);
+            else if(this.type == Long.class) value = Long.parseLong(input);
+            else if(this.type == Double.class) value = Double.parseDouble(input);
+            else if(this.type == Float.class) value = Float.parseFloat(input);
+            else if(this.type == String.class) value = input.isEmpty() ? null : input;
+            else value = null;
+
+            return this.type.cast(value);
+        } catch(NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * @return the value as it is shown to the player in the messages of this flag
+     */
+    public String formatValue(Player player, T value) {
+        return String.valueOf(value);
+    }
+
+    public String formatValue(Player player, Plot plot) {
+        return this.formatValue(player, this.get(plot));
+    }
+
+    public T get(Plot plot) {
+        final Object value = plot.getConfigValue(this.name);
+        return this.type.isInstance(value) ? this.type.cast(value) : this.defaultValue;
+    }
+
+    /**
+     * Sets the value of the plot and all plots merged with it, null resets it to the default value.
+     */
+    public void set(Plot plot, T value) {
+        plot.setFlag(this, value);
+    }
+
+    void setValue(Plot plot, T value) {
+        if(value == null) plot.getConfig().remove(this.name);
+        else plot.getConfig().put(this.name, value);
+    }
+
+    /**
+     * Takes over the value which was saved for the flag in the config of the plot.
+     */
+    void load(Plot plot) {
+    }
+
+    /**
+     * @return whether the plot has an own value for this flag
+     */
+    public boolean isSet(Plot plot) {
+        return plot.getConfig().containsKey(this.name);
+    }
+
+    /**
+     * @return the value as it is saved in the config of the plot
+     */
+    Object getSavedValue(Plot plot) {
+        return plot.getConfig().get(this.name);
+    }
+
+}
@@ -0,0 +1,79 @@
+/*
+ * Copyright 2022 KCodeYT
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ms.kevi.plotplugin.util;
+
+import ms.kevi.plotplugin.PlotPlugin;
+import ms.kevi.plotplugin.lang.TranslationKey;
+import ms.kevi.plotplugin.manager.PlotManager;
+
+import java.util.*;
+
+/**
+ * The registry of all plot flags. Other plugins can register their own flags,
+ * at most {@link #MAX_BOOLEAN_FLAGS} boolean flags can be registered in total.
+ *
+ * @author Kevims KCodeYT
+ * @version 1.0
+ */
+public class PlotFlags {
+
+    public static final int MAX_BOOLEAN_FLAGS = Long.SIZE;
+
+    private static final Map<String, PlotFlag<?>> FLAGS = new LinkedHashMap<>();
+    private static final List<BooleanFlag> BOOLEAN_FLAGS = new ArrayList<>();
+
+    public static final BooleanFlag DAMAGE = register(new BooleanFlag("damage", false, TranslationKey.INFO_DAMAGE, TranslationKey.CONFIG_DAMAGE, TranslationKey.CONFIG_HELP_DAMAGE));
+    public static final BooleanFlag PVE = register(new BooleanFlag("pve", false, TranslationKey.INFO_PVE, TranslationKey.CONFIG_PVE, TranslationKey.CONFIG_HELP_PVE));
+    public static final BooleanFlag PVP = register(new BooleanFlag("pvp", false, TranslationKey.INFO_PVP, TranslationKey.CONFIG_PVP, TranslationKey.CONFIG_HELP_PVP));
+
+    /**
+     * Registers the flag, values which were saved for it in already loaded plots are taken over.
+     *
+     * @throws IllegalArgumentException if a flag with the same name is already registered
+     * @throws IllegalStateException    if no more boolean flags can be registered
+     */
+    public static synchronized <F extends PlotFlag<?>> F register(F flag) {
+        final String name = flag.getName().toLowerCase(Locale.ROOT);
+        if(FLAGS.containsKey(name))
+            throw new IllegalArgumentException("A plot flag named " + name + " is already registered!");
+
+        if(flag instanceof final BooleanFlag booleanFlag) {
+            if(BOOLEAN_FLAGS.size() >= MAX_BOOLEAN_FLAGS)
+                throw new IllegalStateException("Only " + MAX_BOOLEAN_FLAGS + " boolean plot flags can be registered!");
+
+            booleanFlag.setBit(BOOLEAN_FLAGS.size());
+            BOOLEAN_FLAGS.add(booleanFlag);
+        }
+
+        FLAGS.put(name, flag);
+
+        final PlotPlugin plugin = PlotPlugin.INSTANCE;
+        if(plugin != null && plugin.getPlotManagerMap() != null)
+            for(PlotManager plotManager : plugin.getPlotManagerMap().values())
+                plotManager.loadFlag(flag);
+        return flag;
+    }
+
+    public static synchronized PlotFlag<?> get(String name) {
+        return FLAGS.get(name.toLowerCase(Locale.ROOT));
+    }
+
+    public static synchronized Collection<PlotFlag<?>> values() {
+        return List.copyOf(FLAGS.values());
+    }
+
+}
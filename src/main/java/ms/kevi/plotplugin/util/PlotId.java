@@ -23,7 +23,7 @@ import lombok.Value;
  * @version 1.0
  */
 @Value(staticConstructor = "of")
-public class PlotId {
+public class PlotId implements Comparable<PlotId> {
 
     int x;
     int z;
@@ -36,6 +36,12 @@ public class PlotId {
         return this.add(-x, -z);
     }
 
+    @Override
+    public int compareTo(PlotId other) {
+        if(this.z != other.z) return Integer.compare(this.z, other.z);
+        return Integer.compare(this.x, other.x);
+    }
+
     @Override
     public String toString() {
         return this.x + ";" + this.z;
@@ -38,6 +38,7 @@ public class PlotSchematic {
 
     public void init(Schematic schematic) {
         this.schematic = schematic;
+        this.plotManager.updateGeneratorContext();
     }
 
     public void init(File file) {
@@ -67,6 +68,7 @@ public class PlotSchematic {
     public void remove(File file) {
         if(this.schematic == null) return;
         this.schematic = null;
+        this.plotManager.updateGeneratorContext();
 
         if(!file.exists()) return;
         file.delete();
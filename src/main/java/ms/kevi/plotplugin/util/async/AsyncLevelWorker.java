@@ -16,65 +16,130 @@
 
 package ms.kevi.plotplugin.util.async;
 
-import cn.nukkit.Player;
 import cn.nukkit.blockstate.BlockState;
 import cn.nukkit.level.Level;
 import cn.nukkit.level.format.FullChunk;
-import cn.nukkit.level.format.generic.BaseFullChunk;
 import cn.nukkit.math.BlockVector3;
+import it.unimi.dsi.fastutil.longs.Long2BooleanLinkedOpenHashMap;
+import it.unimi.dsi.fastutil.longs.Long2BooleanMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectLinkedOpenHashMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import ms.kevi.plotplugin.PlotPlugin;
+import ms.kevi.plotplugin.metrics.MetricCounter;
+import ms.kevi.plotplugin.metrics.MetricTimer;
+import ms.kevi.plotplugin.metrics.PlotMetrics;
 import ms.kevi.plotplugin.util.WhenDone;
 
 import java.util.ArrayDeque;
-import java.util.HashSet;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Queue;
-import java.util.Set;
-import java.util.function.Supplier;
+import java.util.StringJoiner;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.ToLongFunction;
 
 /**
+ * Runs block edits asynchronously, only blocks which differ from the requested state are written.
+ * All chunks a job needs are loaded and pinned by the {@link LevelAccess} before the edits run and are released
+ * again once the job is done. Preparations, like closing the entities of the edited area, run on the main thread
+ * in between. Chunks with only a few changed blocks get these blocks sent instead of the whole chunk.
+ *
  * @author Kevims KCodeYT
  * @version 1.0
  */
 public class AsyncLevelWorker {
 
-    private final Level level;
-    private final Set<FullChunk> usedChunks;
+    private final LevelAccess levelAccess;
+    private final PlotMetrics metrics;
+    private final int blockUpdateThreshold;
+    private final Long2ObjectMap<BlockChanges> changedChunks;
     private final Queue<Runnable> queue;
+    private final Long2BooleanMap requiredChunks;
+    private final List<Runnable> preparations;
 
-    public AsyncLevelWorker(Level level) {
-        this.level = level;
-        this.usedChunks = new HashSet<>();
+    /**
+     * @param blockUpdateThreshold the amount of changed blocks in a chunk up to which only the changed blocks are sent to the players
+     *                             instead of the whole chunk
+     */
+    public AsyncLevelWorker(LevelAccess levelAccess, PlotMetrics metrics, int blockUpdateThreshold) {
+        this.levelAccess = levelAccess;
+        this.metrics = metrics;
+        this.blockUpdateThreshold = blockUpdateThreshold;
+        this.changedChunks = new Long2ObjectLinkedOpenHashMap<>();
         this.queue = new ArrayDeque<>();
+        this.requiredChunks = new Long2BooleanLinkedOpenHashMap();
+        this.preparations = new ArrayList<>();
+    }
+
+    /**
+     * Queues a task which runs on the main thread once all chunks of the job are loaded and pinned, before any edit runs.
+     */
+    public void queuePreparation(Runnable preparation) {
+        this.preparations.add(preparation);
     }
 
     public void queueFill(BlockVector3 startPos, BlockVector3 endPos, BlockState blockState) {
+        for(int chunkX = startPos.getX() >> 4; chunkX <= endPos.getX() >> 4; chunkX++)
+            for(int chunkZ = startPos.getZ() >> 4; chunkZ <= endPos.getZ() >> 4; chunkZ++)
+                this.requiredChunks.put(Level.chunkHash(chunkX, chunkZ), true);
+
         this.queue.add(() -> {
+            long blocks = 0;
             for(int x = startPos.getX(); x <= endPos.getX(); x++) {
                 for(int z = startPos.getZ(); z <= endPos.getZ(); z++) {
-                    final BaseFullChunk fullChunk = this.level.getChunk(x >> 4, z >> 4);
+                    final FullChunk fullChunk = this.levelAccess.getChunk(x >> 4, z >> 4);
                     if(fullChunk == null) continue;
-                    this.addChunk(fullChunk);
 
-                    for(int y = startPos.getY(); y <= endPos.getY(); y++) {
-                        fullChunk.setBlockStateAtLayer(x & 15, y, z & 15, 0, blockState);
-                        fullChunk.setBlockStateAtLayer(x & 15, y, z & 15, 1, BlockState.AIR);
+                    ChunkWriter.startRecording(this.getBlockChanges(fullChunk));
+                    try {
+                        blocks += ChunkWriter.fillColumn(fullChunk, x & 15, z & 15, startPos.getY(), endPos.getY(), blockState);
+                    } finally {
+                        ChunkWriter.stopRecording();
                     }
                 }
             }
+
+            this.metrics.add(MetricCounter.BLOCKS_WRITTEN, blocks);
         });
     }
 
-    public void addTask(Supplier<Set<FullChunk>> chunkTask) {
+    /**
+     * Queues an edit of a single chunk, the chunk editor returns the amount of blocks it has changed.
+     * Chunks in which nothing changed are neither marked as modified nor sent again.
+     */
+    public void queueChunkEdit(int chunkX, int chunkZ, ToLongFunction<FullChunk> chunkEditor) {
+        this.queueChunkEdit(chunkX, chunkZ, true, chunkEditor);
+    }
+
+    /**
+     * @param create whether the chunk should be created if it does not exist yet, otherwise the edit is skipped for it
+     */
+    public void queueChunkEdit(int chunkX, int chunkZ, boolean create, ToLongFunction<FullChunk> chunkEditor) {
+        final long chunkKey = Level.chunkHash(chunkX, chunkZ);
+        if(create || !this.requiredChunks.containsKey(chunkKey)) this.requiredChunks.put(chunkKey, create);
+
         this.queue.add(() -> {
-            for(FullChunk usedChunk : chunkTask.get())
-                this.addChunk(usedChunk);
+            final FullChunk fullChunk = this.levelAccess.getChunk(chunkX, chunkZ);
+            if(fullChunk == null) return;
+
+            final BlockChanges blockChanges = this.getBlockChanges(fullChunk);
+            ChunkWriter.startRecording(blockChanges);
+            try {
+                // editors which do not write through the chunk writer are only known by their count
+                final long changed = chunkEditor.applyAsLong(fullChunk);
+                if(changed > 0 && blockChanges.isEmpty()) blockChanges.resendChunk();
+                this.metrics.add(MetricCounter.BLOCKS_WRITTEN, changed);
+            } finally {
+                ChunkWriter.stopRecording();
+            }
         });
     }
 
-    private void addChunk(FullChunk fullChunk) {
-        for(FullChunk fullChunkB : this.usedChunks)
-            if(fullChunkB != null && fullChunk.getX() == fullChunkB.getX() && fullChunk.getZ() == fullChunkB.getZ())
-                return;
-        this.usedChunks.add(fullChunk);
+    private BlockChanges getBlockChanges(FullChunk fullChunk) {
+        return this.changedChunks.computeIfAbsent(
+                Level.chunkHash(fullChunk.getX(), fullChunk.getZ()),
+                key -> new BlockChanges(fullChunk.getX(), fullChunk.getZ(), this.blockUpdateThreshold)
+        );
     }
 
     public void runQueue() {
@@ -83,22 +148,85 @@ public class AsyncLevelWorker {
 
     public void runQueue(WhenDone whenDone) {
         if(whenDone != null) whenDone.addTask();
-        TaskExecutor.executeAsync(() -> {
-            this.queue.forEach(Runnable::run);
+
+        final long startTime = System.nanoTime();
+        final int operations = this.queue.size();
+        this.metrics.jobQueued(operations);
+
+        final long[] chunkKeys = this.requiredChunks.keySet().toLongArray();
+        final CompletableFuture<?>[] chunkLoads = new CompletableFuture[chunkKeys.length];
+        for(int i = 0; i < chunkKeys.length; i++)
+            chunkLoads[i] = this.levelAccess.loadChunk(Level.getHashX(chunkKeys[i]), Level.getHashZ(chunkKeys[i]), this.requiredChunks.get(chunkKeys[i]));
+
+        final Runnable edits = () -> TaskExecutor.executeAsync(() -> {
+            try {
+                this.queue.forEach(Runnable::run);
+            } finally {
+                TaskExecutor.execute(() -> {
+                    for(BlockChanges blockChanges : this.changedChunks.values()) {
+                        if(blockChanges.isEmpty()) continue;
+
+                        this.levelAccess.markChunkModified(blockChanges.getChunkX(), blockChanges.getChunkZ());
+                        if(blockChanges.isResendChunk()) {
+                            this.levelAccess.resendChunk(blockChanges.getChunkX(), blockChanges.getChunkZ());
+                            this.metrics.increment(MetricCounter.CHUNKS_RESENT);
+                        } else {
+                            this.levelAccess.sendBlockChanges(blockChanges);
+                            this.metrics.add(MetricCounter.BLOCK_UPDATES_SENT, blockChanges.size());
+                        }
+                    }
+
+                    this.finishJob(chunkKeys, operations, startTime, whenDone);
+                });
+            }
+        });
+
+        CompletableFuture.allOf(chunkLoads).whenComplete((ignored, throwable) -> {
+            if(throwable != null) {
+                TaskExecutor.execute(() -> this.abortJob(chunkKeys, chunkLoads, throwable, operations, startTime, whenDone));
+                return;
+            }
+
+            if(this.preparations.isEmpty()) {
+                edits.run();
+                return;
+            }
 
             TaskExecutor.execute(() -> {
-                for(FullChunk fullChunk : this.usedChunks) {
-                    if(fullChunk.getProvider() == null || fullChunk.getProvider().getLevel() == null) continue;
-                    final Level level = fullChunk.getProvider().getLevel();
-                    for(Player player : level.getChunkPlayers(fullChunk.getX(), fullChunk.getZ()).values())
-                        level.requestChunk(fullChunk.getX(), fullChunk.getZ(), player);
+                try {
+                    this.preparations.forEach(Runnable::run);
+                } finally {
+                    this.preparations.clear();
+                    edits.run();
                 }
-
-                this.queue.clear();
-                this.usedChunks.clear();
-                if(whenDone != null) whenDone.done();
             });
         });
     }
 
+    /**
+     * Drops all edits of a job of which at least one chunk could not be loaded, so no plot is left half edited.
+     */
+    private void abortJob(long[] chunkKeys, CompletableFuture<?>[] chunkLoads, Throwable throwable, int operations, long startTime, WhenDone whenDone) {
+        final StringJoiner failedChunks = new StringJoiner(", ");
+        for(int i = 0; i < chunkKeys.length; i++)
+            if(chunkLoads[i].isCompletedExceptionally())
+                failedChunks.add("[" + Level.getHashX(chunkKeys[i]) + ", " + Level.getHashZ(chunkKeys[i]) + "]");
+
+        PlotPlugin.INSTANCE.getLogger().error("Could not load the chunks " + failedChunks + " of a plot edit, the edit was aborted!", throwable);
+        this.preparations.clear();
+        this.finishJob(chunkKeys, operations, startTime, whenDone);
+    }
+
+    private void finishJob(long[] chunkKeys, int operations, long startTime, WhenDone whenDone) {
+        for(long chunkKey : chunkKeys)
+            this.levelAccess.releaseChunk(Level.getHashX(chunkKey), Level.getHashZ(chunkKey));
+
+        this.queue.clear();
+        this.changedChunks.clear();
+        this.requiredChunks.clear();
+        this.metrics.jobFinished(operations);
+        this.metrics.record(MetricTimer.WORKER_JOB, startTime);
+        if(whenDone != null) whenDone.done();
+    }
+
 }
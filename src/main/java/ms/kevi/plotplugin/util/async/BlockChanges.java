@@ -0,0 +1,101 @@
+/*
+ * Copyright 2022 KCodeYT
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ms.kevi.plotplugin.util.async;
+
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.ints.IntList;
+import lombok.Getter;
+
+/**
+ * The block positions an edit job changed in one chunk. Once more blocks than the threshold
+ * changed the positions are dropped and the whole chunk has to be sent again instead.
+ *
+ * @author Kevims KCodeYT
+ * @version 1.0
+ */
+public class BlockChanges {
+
+    private static final int Y_OFFSET = 0x800;
+
+    @Getter
+    private final int chunkX;
+    @Getter
+    private final int chunkZ;
+    private final int threshold;
+    private final IntList positions;
+    private boolean resendChunk;
+
+    public BlockChanges(int chunkX, int chunkZ, int threshold) {
+        this.chunkX = chunkX;
+        this.chunkZ = chunkZ;
+        this.threshold = threshold;
+        this.positions = new IntArrayList();
+        this.resendChunk = threshold <= 0;
+    }
+
+    /**
+     * @param x the x coordinate inside the chunk
+     * @param z the z coordinate inside the chunk
+     */
+    public void add(int x, int y, int z, int layer) {
+        if(this.resendChunk) return;
+
+        if(this.positions.size() >= this.threshold) {
+            this.resendChunk();
+            return;
+        }
+
+        this.positions.add(((y + Y_OFFSET) << 9) | (layer << 8) | ((z & 15) << 4) | (x & 15));
+    }
+
+    /**
+     * Called for changes which can not be sent as block updates, like biome changes.
+     */
+    public void resendChunk() {
+        this.resendChunk = true;
+        this.positions.clear();
+    }
+
+    public boolean isResendChunk() {
+        return this.resendChunk;
+    }
+
+    public boolean isEmpty() {
+        return !this.resendChunk && this.positions.isEmpty();
+    }
+
+    public int size() {
+        return this.positions.size();
+    }
+
+    public int getX(int index) {
+        return (this.chunkX << 4) | (this.positions.getInt(index) & 15);
+    }
+
+    public int getY(int index) {
+        return (this.positions.getInt(index) >> 9) - Y_OFFSET;
+    }
+
+    public int getZ(int index) {
+        return (this.chunkZ << 4) | ((this.positions.getInt(index) >> 4) & 15);
+    }
+
+    public int getLayer(int index) {
+        return (this.positions.getInt(index) >> 8) & 1;
+    }
+
+}
@@ -0,0 +1,109 @@
+/*
+ * Copyright 2022 KCodeYT
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ms.kevi.plotplugin.util.async;
+
+import cn.nukkit.blockstate.BlockState;
+import cn.nukkit.level.format.ChunkSection;
+import cn.nukkit.level.format.FullChunk;
+import cn.nukkit.level.format.generic.BaseChunk;
+import lombok.experimental.UtilityClass;
+
+/**
+ * Block writes which compare against the current state of the chunk first,
+ * blocks which already have the state are not written and do not mark the chunk as changed.
+ * All methods return the amount of block states which were actually changed.
+ * While the current thread records into {@link BlockChanges}, every change is added to them.
+ *
+ * @author Kevims KCodeYT
+ * @version 1.0
+ */
+@UtilityClass
+public class ChunkWriter {
+
+    private final ThreadLocal<BlockChanges> RECORDING = new ThreadLocal<>();
+
+    /**
+     * Records all changes written by the current thread into the block changes until {@link #stopRecording()} is called.
+     */
+    public void startRecording(BlockChanges blockChanges) {
+        RECORDING.set(blockChanges);
+    }
+
+    public void stopRecording() {
+        RECORDING.remove();
+    }
+
+    public int setBlockState(FullChunk fullChunk, int x, int y, int z, int layer, BlockState blockState) {
+        if(fullChunk.getBlockState(x, y, z, layer).equals(blockState)) return 0;
+
+        fullChunk.setBlockStateAtLayer(x, y, z, layer, blockState);
+
+        final BlockChanges blockChanges = RECORDING.get();
+        if(blockChanges != null) blockChanges.add(x, y, z, layer);
+        return 1;
+    }
+
+    /**
+     * Sets the state on the first layer and clears the second one.
+     */
+    public int setBlock(FullChunk fullChunk, int x, int y, int z, BlockState blockState) {
+        return setBlockState(fullChunk, x, y, z, 0, blockState) + setBlockState(fullChunk, x, y, z, 1, BlockState.AIR);
+    }
+
+    /**
+     * Sets the state on the first layer and clears the second one for all blocks of the column from minY to maxY.
+     * When filling with air, sections without any blocks are skipped as a whole instead of being compared block by block.
+     */
+    public int fillColumn(FullChunk fullChunk, int x, int z, int minY, int maxY, BlockState blockState) {
+        final boolean air = blockState.equals(BlockState.AIR);
+        int changed = 0;
+        int y = minY;
+        while(y <= maxY) {
+            final int sectionMaxY = Math.min(maxY, y | 15);
+            if(air && isEmptySection(fullChunk, y >> 4)) {
+                y = sectionMaxY + 1;
+                continue;
+            }
+
+            for(; y <= sectionMaxY; y++)
+                changed += setBlock(fullChunk, x, y, z, blockState);
+        }
+
+        return changed;
+    }
+
+    /**
+     * @return true if the chunk section is known to contain nothing but air, chunks which are not backed by sections are never empty
+     */
+    private boolean isEmptySection(FullChunk fullChunk, int sectionY) {
+        if(!(fullChunk instanceof final BaseChunk baseChunk)) return false;
+
+        final ChunkSection section = baseChunk.getSection(sectionY);
+        return section != null && section.getY() == sectionY && section.isEmpty();
+    }
+
+    public int setBiomeId(FullChunk fullChunk, int x, int z, int biomeId) {
+        if(fullChunk.getBiomeId(x, z) == biomeId) return 0;
+
+        fullChunk.setBiomeId(x, z, biomeId);
+
+        final BlockChanges blockChanges = RECORDING.get();
+        if(blockChanges != null) blockChanges.resendChunk();
+        return 1;
+    }
+
+}
@@ -0,0 +1,84 @@
+/*
+ * Copyright 2022 KCodeYT
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ms.kevi.plotplugin.util.async;
+
+import cn.nukkit.Player;
+import cn.nukkit.blockentity.BlockEntity;
+import cn.nukkit.entity.Entity;
+import cn.nukkit.level.format.FullChunk;
+
+import java.util.*;
+
+/**
+ * Collects the entities and block entities inside of areas by going through the entity maps of the
+ * affected chunks, so no blocks have to be created just to find the block entities.
+ * All collected entities are closed together by {@link #close()}.
+ *
+ * @author Kevims KCodeYT
+ * @version 1.0
+ */
+public class EntitySweep {
+
+    private final LevelAccess levelAccess;
+    private final Set<Entity> entities;
+    private final Set<BlockEntity> blockEntities;
+
+    public EntitySweep(LevelAccess levelAccess) {
+        this.levelAccess = levelAccess;
+        this.entities = Collections.newSetFromMap(new IdentityHashMap<>());
+        this.blockEntities = Collections.newSetFromMap(new IdentityHashMap<>());
+    }
+
+    /**
+     * Collects all entities except players and all block entities from minX;minZ to maxX;maxZ over the full height.
+     * Chunks which are not loaded are skipped, so the sweep never loads a chunk.
+     */
+    public void sweep(int minX, int minZ, int maxX, int maxZ) {
+        for(int chunkX = minX >> 4; chunkX <= maxX >> 4; chunkX++) {
+            for(int chunkZ = minZ >> 4; chunkZ <= maxZ >> 4; chunkZ++) {
+                if(!this.levelAccess.isChunkLoaded(chunkX, chunkZ)) continue;
+
+                final FullChunk fullChunk = this.levelAccess.getChunk(chunkX, chunkZ);
+                if(fullChunk == null) continue;
+
+                for(Entity entity : new ArrayList<>(fullChunk.getEntities().values())) {
+                    if(entity instanceof Player) continue;
+                    if(entity.getFloorX() < minX || entity.getFloorX() > maxX || entity.getFloorZ() < minZ || entity.getFloorZ() > maxZ)
+                        continue;
+
+                    this.entities.add(entity);
+                }
+
+                for(BlockEntity blockEntity : new ArrayList<>(fullChunk.getBlockEntities().values())) {
+                    if(blockEntity.getFloorX() < minX || blockEntity.getFloorX() > maxX || blockEntity.getFloorZ() < minZ || blockEntity.getFloorZ() > maxZ)
+                        continue;
+
+                    this.blockEntities.add(blockEntity);
+                }
+            }
+        }
+    }
+
+    public void close() {
+        if(this.entities.isEmpty() && this.blockEntities.isEmpty()) return;
+
+        this.levelAccess.closeEntities(new ArrayList<>(this.entities), new ArrayList<>(this.blockEntities));
+        this.entities.clear();
+        this.blockEntities.clear();
+    }
+
+}
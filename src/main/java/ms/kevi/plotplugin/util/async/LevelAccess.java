@@ -0,0 +1,71 @@
+/*
+ * Copyright 2022 KCodeYT
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ms.kevi.plotplugin.util.async;
+
+import cn.nukkit.blockentity.BlockEntity;
+import cn.nukkit.entity.Entity;
+import cn.nukkit.level.format.FullChunk;
+
+import java.util.Collection;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * The part of a level the plot edit pipelines work on.
+ * Implemented by {@link ServerLevelAccess} for real levels.
+ *
+ * @author Kevims KCodeYT
+ * @version 1.0
+ */
+public interface LevelAccess {
+
+    FullChunk getChunk(int chunkX, int chunkZ);
+
+    boolean isChunkLoaded(int chunkX, int chunkZ);
+
+    /**
+     * Loads the chunk, generating it first if it does not exist and create is set, and pins it
+     * against unloading until {@link #releaseChunk(int, int)} is called.
+     * Completes with null if the chunk does not exist and create is not set.
+     */
+    CompletableFuture<FullChunk> loadChunk(int chunkX, int chunkZ, boolean create);
+
+    void releaseChunk(int chunkX, int chunkZ);
+
+    boolean isChunkPinned(int chunkX, int chunkZ);
+
+    /**
+     * Called on the main thread for every chunk an edit job has written to.
+     */
+    void markChunkModified(int chunkX, int chunkZ);
+
+    /**
+     * Sends the chunk again to all players which have it loaded.
+     */
+    void resendChunk(int chunkX, int chunkZ);
+
+    /**
+     * Sends the changed blocks of the chunk to all players which have it loaded.
+     */
+    void sendBlockChanges(BlockChanges blockChanges);
+
+    /**
+     * Called on the main thread, closes the entities and block entities found by an {@link EntitySweep} right away in one batch,
+     * before any edit of the job writes to their chunks.
+     */
+    void closeEntities(Collection<Entity> entities, Collection<BlockEntity> blockEntities);
+
+}
@@ -0,0 +1,65 @@
+/*
+ * Copyright 2022 KCodeYT
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ms.kevi.plotplugin.util.async;
+
+import cn.nukkit.level.Level;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import it.unimi.dsi.fastutil.longs.LongSet;
+
+/**
+ * Tracks the loaded chunks of a level which are known to equal the generator output.
+ * A chunk becomes pristine when it is generated and stays so until a block in it is changed,
+ * pristine chunks do not need to be saved because generating them again gives the same result.
+ * Only used on the main thread.
+ *
+ * @author Kevims KCodeYT
+ * @version 1.0
+ */
+public class PristineChunks {
+
+    private final LongSet chunks = new LongOpenHashSet();
+
+    public void markPristine(int chunkX, int chunkZ) {
+        this.chunks.add(Level.chunkHash(chunkX, chunkZ));
+    }
+
+    public void markModified(int chunkX, int chunkZ) {
+        this.chunks.remove(Level.chunkHash(chunkX, chunkZ));
+    }
+
+    /**
+     * Forgets the chunk once it got unloaded.
+     *
+     * @return whether the chunk was pristine
+     */
+    public boolean remove(int chunkX, int chunkZ) {
+        return this.chunks.remove(Level.chunkHash(chunkX, chunkZ));
+    }
+
+    public boolean isPristine(int chunkX, int chunkZ) {
+        return this.chunks.contains(Level.chunkHash(chunkX, chunkZ));
+    }
+
+    public long[] toArray() {
+        return this.chunks.toLongArray();
+    }
+
+    public int size() {
+        return this.chunks.size();
+    }
+
+}
@@ -0,0 +1,178 @@
+/*
+ * Copyright 2022 KCodeYT
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ms.kevi.plotplugin.util.async;
+
+import cn.nukkit.Player;
+import cn.nukkit.blockentity.BlockEntity;
+import cn.nukkit.entity.Entity;
+import cn.nukkit.level.Level;
+import cn.nukkit.level.format.FullChunk;
+import cn.nukkit.math.Vector3;
+import cn.nukkit.network.protocol.UpdateBlockPacket;
+import it.unimi.dsi.fastutil.longs.Long2IntMap;
+import it.unimi.dsi.fastutil.longs.Long2IntOpenHashMap;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.Value;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * The level access of a loaded server level. Chunks are loaded and pinned on the main thread,
+ * the pins are checked by the plot listener when the server tries to unload a chunk.
+ * Chunks which are not loaded yet are read or generated in batches of at most chunkLoadsPerTick per tick,
+ * the remaining ones stay queued for the following ticks.
+ *
+ * @author Kevims KCodeYT
+ * @version 1.0
+ */
+@Getter
+@RequiredArgsConstructor
+public class ServerLevelAccess implements LevelAccess {
+
+    private final Level level;
+    /**
+     * Generates chunks which were created to be edited before the server generated them.
+     */
+    private final Consumer<FullChunk> chunkGenerator;
+    private final PristineChunks pristineChunks;
+    private final int chunkLoadsPerTick;
+    private final Long2IntMap pinnedChunks = new Long2IntOpenHashMap();
+    private final Queue<ChunkLoad> chunkLoads = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean loadScheduled = new AtomicBoolean();
+
+    @Override
+    public FullChunk getChunk(int chunkX, int chunkZ) {
+        return this.level.getChunk(chunkX, chunkZ);
+    }
+
+    @Override
+    public boolean isChunkLoaded(int chunkX, int chunkZ) {
+        return this.level.isChunkLoaded(chunkX, chunkZ);
+    }
+
+    @Override
+    public CompletableFuture<FullChunk> loadChunk(int chunkX, int chunkZ, boolean create) {
+        final CompletableFuture<FullChunk> future = new CompletableFuture<>();
+        this.chunkLoads.add(new ChunkLoad(chunkX, chunkZ, create, future));
+        if(this.loadScheduled.compareAndSet(false, true)) TaskExecutor.execute(this::loadQueuedChunks);
+        return future;
+    }
+
+    private void loadQueuedChunks() {
+        int loads = 0;
+        ChunkLoad chunkLoad;
+        while(loads < this.chunkLoadsPerTick && (chunkLoad = this.chunkLoads.poll()) != null) {
+            this.pinnedChunks.mergeInt(Level.chunkHash(chunkLoad.chunkX, chunkLoad.chunkZ), 1, Integer::sum);
+
+            // chunks which are already loaded and generated cost no chunk io, so they do not count against the limit
+            final FullChunk loadedChunk = this.level.isChunkLoaded(chunkLoad.chunkX, chunkLoad.chunkZ) ? this.level.getChunk(chunkLoad.chunkX, chunkLoad.chunkZ) : null;
+            if(loadedChunk != null && loadedChunk.isGenerated()) {
+                chunkLoad.future.complete(loadedChunk);
+                continue;
+            }
+
+            loads++;
+            try {
+                final FullChunk fullChunk = this.level.getChunk(chunkLoad.chunkX, chunkLoad.chunkZ, chunkLoad.create);
+                if(fullChunk != null && !fullChunk.isGenerated()) {
+                    this.chunkGenerator.accept(fullChunk);
+                    fullChunk.setGenerated();
+                    fullChunk.setPopulated();
+                }
+
+                chunkLoad.future.complete(fullChunk);
+            } catch(RuntimeException e) {
+                chunkLoad.future.completeExceptionally(e);
+            }
+        }
+
+        if(!this.chunkLoads.isEmpty()) {
+            this.level.getServer().getScheduler().scheduleDelayedTask(null, this::loadQueuedChunks, 1);
+            return;
+        }
+
+        this.loadScheduled.set(false);
+        // a load may have been queued after the queue was checked but before the flag was reset
+        if(!this.chunkLoads.isEmpty() && this.loadScheduled.compareAndSet(false, true))
+            TaskExecutor.execute(this::loadQueuedChunks);
+    }
+
+    @Override
+    public void releaseChunk(int chunkX, int chunkZ) {
+        final long chunkKey = Level.chunkHash(chunkX, chunkZ);
+        if(this.pinnedChunks.mergeInt(chunkKey, -1, Integer::sum) <= 0) this.pinnedChunks.remove(chunkKey);
+    }
+
+    @Override
+    public boolean isChunkPinned(int chunkX, int chunkZ) {
+        return this.pinnedChunks.containsKey(Level.chunkHash(chunkX, chunkZ));
+    }
+
+    @Override
+    public void markChunkModified(int chunkX, int chunkZ) {
+        this.pristineChunks.markModified(chunkX, chunkZ);
+
+        // the changed flag may have been cleared by a save while the chunk was still pristine
+        final FullChunk fullChunk = this.level.isChunkLoaded(chunkX, chunkZ) ? this.level.getChunk(chunkX, chunkZ) : null;
+        if(fullChunk != null) fullChunk.setChanged();
+    }
+
+    @Override
+    public void resendChunk(int chunkX, int chunkZ) {
+        for(Player player : this.level.getChunkPlayers(chunkX, chunkZ).values())
+            this.level.requestChunk(chunkX, chunkZ, player);
+    }
+
+    @Override
+    public void sendBlockChanges(BlockChanges blockChanges) {
+        final Player[] players = this.level.getChunkPlayers(blockChanges.getChunkX(), blockChanges.getChunkZ()).values().toArray(new Player[0]);
+        if(players.length == 0) return;
+
+        final List<Vector3> layer0 = new ArrayList<>();
+        final List<Vector3> layer1 = new ArrayList<>();
+        for(int i = 0; i < blockChanges.size(); i++) {
+            final Vector3 vector = new Vector3(blockChanges.getX(i), blockChanges.getY(i), blockChanges.getZ(i));
+            (blockChanges.getLayer(i) == 0 ? layer0 : layer1).add(vector);
+        }
+
+        if(!layer0.isEmpty()) this.level.sendBlocks(players, layer0.toArray(new Vector3[0]), UpdateBlockPacket.FLAG_ALL_PRIORITY, 0);
+        if(!layer1.isEmpty()) this.level.sendBlocks(players, layer1.toArray(new Vector3[0]), UpdateBlockPacket.FLAG_ALL_PRIORITY, 1);
+    }
+
+    @Override
+    public void closeEntities(Collection<Entity> entities, Collection<BlockEntity> blockEntities) {
+        for(Entity entity : entities) entity.close();
+        for(BlockEntity blockEntity : blockEntities) blockEntity.close();
+    }
+
+    @Value
+    private static class ChunkLoad {
+        int chunkX;
+        int chunkZ;
+        boolean create;
+        CompletableFuture<FullChunk> future;
+    }
+
+}
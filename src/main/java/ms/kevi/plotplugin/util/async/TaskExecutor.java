@@ -18,18 +18,31 @@ package ms.kevi.plotplugin.util.async;
 
 import cn.nukkit.Server;
 
+import java.util.concurrent.Executor;
+
 /**
  * @author Kevims KCodeYT
  * @version 1.0
  */
 public class TaskExecutor {
 
+    private static Executor syncExecutor = runnable -> Server.getInstance().getScheduler().scheduleTask(null, runnable, false);
+    private static Executor asyncExecutor = runnable -> Server.getInstance().getScheduler().scheduleTask(null, runnable, true);
+
+    /**
+     * Replaces the server scheduler, used to run the plot operations without a server.
+     */
+    public static void setExecutors(Executor syncExecutor, Executor asyncExecutor) {
+        TaskExecutor.syncExecutor = syncExecutor;
+        TaskExecutor.asyncExecutor = asyncExecutor;
+    }
+
     public static void execute(Runnable runnable) {
-        Server.getInstance().getScheduler().scheduleTask(null, runnable, false);
+        syncExecutor.execute(runnable);
     }
 
     public static void executeAsync(Runnable runnable) {
-        Server.getInstance().getScheduler().scheduleTask(null, runnable, true);
+        asyncExecutor.execute(runnable);
     }
 
 }